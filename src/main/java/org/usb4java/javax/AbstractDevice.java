@@ -15,9 +15,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import javax.usb.UsbClaimException;
 import javax.usb.UsbConst;
+import javax.usb.UsbConfiguration;
 import javax.usb.UsbControlIrp;
 import javax.usb.UsbDevice;
 import javax.usb.UsbDeviceDescriptor;
@@ -28,7 +30,6 @@ import javax.usb.UsbPort;
 import javax.usb.UsbStringDescriptor;
 import javax.usb.event.UsbDeviceEvent;
 import javax.usb.event.UsbDeviceListener;
-import javax.usb.util.DefaultUsbControlIrp;
 
 import org.usb4java.ConfigDescriptor;
 import org.usb4java.Device;
@@ -41,7 +42,7 @@ import org.usb4java.javax.descriptors.SimpleUsbStringDescriptor;
  *
  * @author Klaus Reimer (k@ailis.de)
  */
-abstract class AbstractDevice implements UsbDevice
+public abstract class AbstractDevice implements UsbDevice
 {
     /** The USB device manager. */
     private final DeviceManager manager;
@@ -55,11 +56,14 @@ abstract class AbstractDevice implements UsbDevice
     /** The device speed. */
     private final int speed;
 
-    /** The device configurations. */
-    private List<Configuration> configurations;
+    /**
+     * The device configurations. Null if not yet loaded. Published after
+     * configMapping and activeConfigurationNumber are set.
+     */
+    private volatile List<UsbConfiguration> configurations;
 
     /** Mapping from configuration value to configuration. */
-    private Map<Byte, Configuration> configMapping =
+    private final Map<Byte, Configuration> configMapping =
         new HashMap<Byte, Configuration>();
 
     /** The USB device listener list. */
@@ -115,9 +119,45 @@ abstract class AbstractDevice implements UsbDevice
         this.parentId = parentId;
         this.speed = speed;
 
-        // Read device configurations
+        // Read device configurations unless they are loaded on first access
+        if (!manager.isLazyConfigurations()) loadConfigurations(device);
+    }
+
+    /**
+     * Constructs a device which is already open. Used by tests which run
+     * the IRP queues without a real device.
+     *
+     * @param manager
+     *            The USB device manager which is responsible for this device.
+     * @param id
+     *            The device id. Must not be null.
+     * @param handle
+     *            The device handle returned by {@link #open()}.
+     */
+    AbstractDevice(final DeviceManager manager, final DeviceId id,
+        final DeviceHandle handle)
+    {
+        this.manager = manager;
+        this.id = id;
+        this.parentId = null;
+        this.speed = LibUsb.SPEED_UNKNOWN;
+        this.handle = handle;
+    }
+
+    /**
+     * Reads the configurations and the active configuration number of the
+     * device.
+     *
+     * @param device
+     *            The libusb device.
+     * @throws UsbPlatformException
+     *             When device configuration could not be read.
+     */
+    private void loadConfigurations(final Device device)
+        throws UsbPlatformException
+    {
         final int numConfigurations =
-            id.getDeviceDescriptor().bNumConfigurations() & 0xff;
+            this.id.getDeviceDescriptor().bNumConfigurations() & 0xff;
         final List<Configuration> configurations =
             new ArrayList<Configuration>(numConfigurations);
         for (int i = 0; i < numConfigurations; i += 1)
@@ -128,7 +168,7 @@ abstract class AbstractDevice implements UsbDevice
             if (result < 0)
             {
                 throw ExceptionUtils.createPlatformException(
-                    "Unable to get configuration " + i + " for device " + id,
+                    "Unable to get configuration " + i + " for device " + this.id,
                     result);
             }
             try
@@ -144,7 +184,6 @@ abstract class AbstractDevice implements UsbDevice
                 LibUsb.freeConfigDescriptor(configDescriptor);
             }
         }
-        this.configurations = Collections.unmodifiableList(configurations);
 
         // Determine the active configuration number
         final ConfigDescriptor configDescriptor = new ConfigDescriptor();
@@ -162,7 +201,8 @@ abstract class AbstractDevice implements UsbDevice
         else if (result < 0)
         {
             throw ExceptionUtils.createPlatformException(
-                "Unable to read active config descriptor from device " + id,
+                "Unable to read active config descriptor from device "
+                    + this.id,
                 result);
         }
         else
@@ -171,6 +211,41 @@ abstract class AbstractDevice implements UsbDevice
                 configDescriptor.bConfigurationValue();
             LibUsb.freeConfigDescriptor(configDescriptor);
         }
+        this.configurations =
+            Collections.<UsbConfiguration>unmodifiableList(configurations);
+    }
+
+    /**
+     * Ensures that the configurations of the device are loaded. When
+     * configurations are loaded lazily then they are read on first access.
+     *
+     * @throws ScanException
+     *             When the configurations could not be read.
+     */
+    private void checkConfigurations()
+    {
+        if (this.configurations != null) return;
+        synchronized (this.configMapping)
+        {
+            if (this.configurations != null) return;
+            try
+            {
+                final Device device = this.manager.getLibUsbDevice(this.id);
+                try
+                {
+                    loadConfigurations(device);
+                }
+                finally
+                {
+                    this.manager.releaseDevice(device);
+                }
+            }
+            catch (final UsbPlatformException e)
+            {
+                throw new ScanException("Unable to read configurations of "
+                    + "device " + this.id + ": " + e, e);
+            }
+        }
     }
 
     /**
@@ -178,7 +253,7 @@ abstract class AbstractDevice implements UsbDevice
      *
      * @return The device id.
      */
-    public final DeviceId getId()
+    final DeviceId getId()
     {
         return this.id;
     }
@@ -188,11 +263,51 @@ abstract class AbstractDevice implements UsbDevice
      *
      * @return The parent device id or null of there is no parent.
      */
-    public final DeviceId getParentId()
+    final DeviceId getParentId()
     {
         return this.parentId;
     }
 
+    /**
+     * Returns the backend for asynchronous transfers.
+     *
+     * @return The transfer backend.
+     */
+    final TransferBackend getTransferBackend()
+    {
+        return this.manager.getTransferBackend();
+    }
+
+    /**
+     * Returns the pool of direct buffers used for staging IRP data.
+     *
+     * @return The buffer pool.
+     */
+    final BufferPool getBufferPool()
+    {
+        return this.manager.getBufferPool();
+    }
+
+    /**
+     * Returns the configuration.
+     *
+     * @return The configuration.
+     */
+    final Config getConfig()
+    {
+        return this.manager.getConfig();
+    }
+
+    /**
+     * Returns the executor for the processor of a new IRP queue.
+     *
+     * @return The executor.
+     */
+    final Executor getIrpQueueExecutor()
+    {
+        return this.manager.getIrpExecutors().getQueueExecutor();
+    }
+
     /**
      * Ensures the device is connected.
      *
@@ -212,7 +327,7 @@ abstract class AbstractDevice implements UsbDevice
      * @throws UsbException
      *             When USB device could not be opened.
      */
-    public final DeviceHandle open() throws UsbException
+    final DeviceHandle open() throws UsbException
     {
         if (this.handle == null)
         {
@@ -239,7 +354,7 @@ abstract class AbstractDevice implements UsbDevice
     /**
      * Closes the device. If device is not open then nothing is done.
      */
-    public final void close()
+    final void close()
     {
         if (this.handle != null)
         {
@@ -338,27 +453,41 @@ abstract class AbstractDevice implements UsbDevice
         }
     }
 
+    /**
+     * Returns the libusb speed of the device.
+     *
+     * @return The device speed (One of the LibUsb.SPEED_* constants).
+     */
+    final int getLibUsbSpeed()
+    {
+        return this.speed;
+    }
+
     @Override
-    public final List<Configuration> getUsbConfigurations()
+    public final List<UsbConfiguration> getUsbConfigurations()
     {
+        checkConfigurations();
         return this.configurations;
     }
 
     @Override
-    public final Configuration getUsbConfiguration(final byte number)
+    public final UsbConfiguration getUsbConfiguration(final byte number)
     {
+        checkConfigurations();
         return this.configMapping.get(number);
     }
 
     @Override
     public final boolean containsUsbConfiguration(final byte number)
     {
+        checkConfigurations();
         return this.configMapping.containsKey(number);
     }
 
     @Override
     public final byte getActiveUsbConfigurationNumber()
     {
+        checkConfigurations();
         return this.activeConfigurationNumber;
     }
 
@@ -373,7 +502,7 @@ abstract class AbstractDevice implements UsbDevice
     final void setActiveUsbConfigurationNumber(final byte number)
         throws UsbException
     {
-        if (number != this.activeConfigurationNumber)
+        if (number != getActiveUsbConfigurationNumber())
         {
             if (!this.claimedInterfaceNumbers.isEmpty())
                 throw new UsbException("Can't change configuration while an "
@@ -482,7 +611,7 @@ abstract class AbstractDevice implements UsbDevice
     }
 
     @Override
-    public final Configuration getActiveUsbConfiguration()
+    public final UsbConfiguration getActiveUsbConfiguration()
     {
         return getUsbConfiguration(getActiveUsbConfigurationNumber());
     }
@@ -560,13 +689,15 @@ abstract class AbstractDevice implements UsbDevice
         if (irp == null)
             throw new IllegalArgumentException("irp must not be null");
         checkConnected();
-        this.queue.add(irp);
+
+        // Processed right away on this thread if the control queue is idle
+        this.queue.addOrProcess(irp);
         irp.waitUntilComplete();
         if (irp.isUsbException()) throw irp.getUsbException();
     }
 
     @Override
-    public final void asyncSubmit(final UsbControlIrp irp)
+    public final void asyncSubmit(final UsbControlIrp irp) throws UsbException
     {
         if (irp == null)
             throw new IllegalArgumentException("irp must not be null");
@@ -574,42 +705,154 @@ abstract class AbstractDevice implements UsbDevice
         this.queue.add(irp);
     }
 
+    /**
+     * Asynchronously submits the specified control IRP. When the control
+     * queue is bounded and full then this method waits up to the specified
+     * timeout for free space.
+     *
+     * @param irp
+     *            The control IRP to submit. Must not be null.
+     * @param timeout
+     *            The number of milliseconds to wait for free space. 0 to
+     *            fail right away, negative to wait forever.
+     * @throws UsbQueueFullException
+     *             When the control queue is still full after the timeout.
+     * @throws UsbException
+     *             When submission fails.
+     */
+    public final void asyncSubmit(final UsbControlIrp irp, final long timeout)
+        throws UsbException
+    {
+        if (irp == null)
+            throw new IllegalArgumentException("irp must not be null");
+        checkConnected();
+        this.queue.add(irp, timeout);
+    }
+
+    /**
+     * Asynchronously submits the specified control IRP and returns a future
+     * which is done when the IRP is complete. Listeners registered on the
+     * future are called from the thread completing the IRP so
+     * request/response exchanges can be chained without blocking a thread.
+     *
+     * @param irp
+     *            The control IRP to submit. Must not be null.
+     * @return The future of the control IRP.
+     * @throws UsbException
+     *             When submission fails.
+     */
+    public final IrpFuture<UsbControlIrp> futureSubmit(final UsbControlIrp irp)
+        throws UsbException
+    {
+        if (irp == null)
+            throw new IllegalArgumentException("irp must not be null");
+        checkConnected();
+        return this.queue.submit(irp);
+    }
+
+    /**
+     * Returns the maximum number of queued control IRPs.
+     *
+     * @return The capacity of the control queue. 0 if unbounded.
+     */
+    public final int getControlQueueCapacity()
+    {
+        return this.queue.getCapacity();
+    }
+
+    /**
+     * Sets the maximum number of queued control IRPs. Defaults to the
+     * configured IRP queue capacity.
+     *
+     * @param capacity
+     *            The capacity of the control queue. 0 for unbounded.
+     */
+    public final void setControlQueueCapacity(final int capacity)
+    {
+        this.queue.setCapacity(capacity);
+    }
+
+    /**
+     * Returns the number of queued control IRPs which are not yet processed.
+     *
+     * @return The number of queued control IRPs.
+     */
+    public final int getControlQueueSize()
+    {
+        return this.queue.size();
+    }
+
     @Override
     public final void syncSubmit(final List list) throws UsbException
     {
-        if (list == null)
-            throw new IllegalArgumentException("list must not be null");
-        checkConnected();
-        for (final Object item: list)
-        {
-            if (!(item instanceof UsbControlIrp))
-                throw new IllegalArgumentException(
-                    "List contains non-UsbControlIrp objects");
-            syncSubmit((UsbControlIrp) item);
-        }
+        // Submitted one after another so nothing is sent after a failed IRP
+        for (final UsbControlIrp irp: toControlIrps(list))
+            syncSubmit(irp);
     }
 
     @Override
-    public final void asyncSubmit(final List list)
+    public final void asyncSubmit(final List list) throws UsbException
+    {
+        final List<UsbControlIrp> irps = toControlIrps(list);
+        checkConnected();
+        this.queue.addAll(irps);
+    }
+
+    /**
+     * Validates the specified list of control IRPs.
+     *
+     * @param list
+     *            The list of control IRPs.
+     * @return The control IRPs.
+     * @throws IllegalArgumentException
+     *             When the list is null or contains invalid elements.
+     */
+    private static List<UsbControlIrp> toControlIrps(final List<?> list)
     {
         if (list == null)
             throw new IllegalArgumentException("list must not be null");
-        checkConnected();
+        final List<UsbControlIrp> irps =
+            new ArrayList<UsbControlIrp>(list.size());
         for (final Object item: list)
         {
             if (!(item instanceof UsbControlIrp))
                 throw new IllegalArgumentException(
                     "List contains non-UsbControlIrp objects");
-            asyncSubmit((UsbControlIrp) item);
+            irps.add((UsbControlIrp) item);
         }
+        return irps;
     }
 
     @Override
-    public final UsbControlIrp createUsbControlIrp(final byte bmRequestType,
+    public final ControlIrp createUsbControlIrp(final byte bmRequestType,
         final byte bRequest, final short wValue, final short wIndex)
     {
-        return new DefaultUsbControlIrp(bmRequestType, bRequest, wValue,
-            wIndex);
+        return new ControlIrp(bmRequestType, bRequest, wValue, wIndex);
+    }
+
+    /**
+     * Creates a control IRP which transfers the data directly from or to
+     * the specified direct buffer without copying it.
+     *
+     * @param bmRequestType
+     *            The bmRequestType.
+     * @param bRequest
+     *            The bRequest.
+     * @param wValue
+     *            The wValue.
+     * @param wIndex
+     *            The wIndex.
+     * @param buffer
+     *            The direct data buffer. The data starts at the position of
+     *            the buffer and ends at its limit. Must not be null.
+     * @return The control IRP.
+     */
+    public final ControlIrp createUsbControlIrp(final byte bmRequestType,
+        final byte bRequest, final short wValue, final short wIndex,
+        final ByteBuffer buffer)
+    {
+        return new ControlIrp(bmRequestType, bRequest, wValue, wIndex,
+            buffer);
     }
 
     @Override
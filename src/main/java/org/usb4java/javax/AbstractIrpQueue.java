@@ -6,10 +6,19 @@
 package org.usb4java.javax;
 
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.usb.UsbControlIrp;
+import javax.usb.UsbDeviceDescriptor;
 import javax.usb.UsbException;
 import javax.usb.UsbIrp;
 import javax.usb.UsbShortPacketException;
@@ -30,8 +39,49 @@ abstract class AbstractIrpQueue<T extends UsbIrp>
     /** The queued packets. */
     private final Queue<T> irps = new ConcurrentLinkedQueue<T>();
 
-    /** The queue processor thread. */
-    private volatile Thread processor;
+    /** The number of queued packets. */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The number of IRPs which are queued, processed or in flight and not
+     * yet completed.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * The maximum number of queued packets. 0 for unbounded, -1 if not yet
+     * read from the configuration.
+     */
+    private volatile int capacity = -1;
+
+    /** The number of threads waiting for free space in the queue. */
+    private volatile int waiting;
+
+    /** If the queue processor waits for more IRPs to be queued. */
+    private volatile boolean awaitingIrps;
+
+    /** Lock which keeps the IRPs of a batch together in the queue. */
+    private final Object appendLock = new Object();
+
+    /** The futures of IRPs submitted with {@link #submit(UsbIrp, long)}. */
+    private final Map<UsbIrp, IrpFuture<T>> futures =
+        new ConcurrentHashMap<UsbIrp, IrpFuture<T>>();
+
+    /** The queue processor. */
+    private final Runnable processor = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            process();
+        }
+    };
+
+    /** If the queue processor is scheduled or running. */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /** The executor running the queue processor. Null if not used yet. */
+    private Executor executor;
     
     /** If queue is currently aborting. */
     private volatile boolean aborting;
@@ -39,6 +89,15 @@ abstract class AbstractIrpQueue<T extends UsbIrp>
     /** The USB device. */
     private final AbstractDevice device;
 
+    /** The window for asynchronous transfers. Null if not used yet. */
+    private volatile TransferWindow window;
+
+    /**
+     * The transfer the queue processor is currently waiting for. Null if
+     * none.
+     */
+    private volatile AsyncTransfer active;
+
     /**
      * Constructor.
      * 
@@ -53,80 +112,798 @@ abstract class AbstractIrpQueue<T extends UsbIrp>
     }
 
     /**
-     * Queues the specified control IRP for processing.
+     * Queues the specified IRP for processing. When the queue is full then
+     * the configured IRP queue timeout applies.
+     * 
+     * @param irp
+     *            The IRP to queue.
+     * @throws UsbException
+     *             When queue is full or when interrupted while waiting for
+     *             free space.
+     */
+    public final void add(final T irp) throws UsbException
+    {
+        add(irp, getConfig().getIrpQueueTimeout());
+    }
+
+    /**
+     * Queues the specified IRP for processing.
+     * 
+     * @param irp
+     *            The IRP to queue.
+     * @param timeout
+     *            The number of milliseconds to wait for free space when the
+     *            queue is full. 0 to fail right away, negative to wait
+     *            forever.
+     * @throws UsbQueueFullException
+     *             When queue is still full after the timeout.
+     * @throws UsbException
+     *             When interrupted while waiting for free space.
+     */
+    public final void add(final T irp, final long timeout) throws UsbException
+    {
+        synchronized (this.appendLock)
+        {
+            append(irp, timeout);
+        }
+    }
+
+    /**
+     * Queues the specified IRPs as a batch. No other IRPs are queued
+     * between the IRPs of the batch. The queue processor already starts
+     * with the first IRP while the others are queued so a batch may be
+     * larger than the queue capacity. When the queue is full then the
+     * configured IRP queue timeout applies to each IRP. When it expires then
+     * the IRPs queued so far are still processed and the remaining IRPs are
+     * completed with the exception so callers can still wait for all IRPs
+     * of the batch.
+     * 
+     * @param list
+     *            The IRPs to queue.
+     * @throws UsbQueueFullException
+     *             When queue is still full after the timeout.
+     * @throws UsbException
+     *             When interrupted while waiting for free space.
+     */
+    public final void addAll(final List<? extends T> list) throws UsbException
+    {
+        final long timeout = getConfig().getIrpQueueTimeout();
+        synchronized (this.appendLock)
+        {
+            for (int i = 0; i < list.size(); i += 1)
+            {
+                try
+                {
+                    append(list.get(i), timeout);
+                }
+                catch (final UsbException e)
+                {
+                    failAll(list.subList(i, list.size()), e);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes the specified IRPs which were never queued with the
+     * specified exception. No events are sent for them.
+     * 
+     * @param list
+     *            The IRPs to complete.
+     * @param exception
+     *            The exception to complete the IRPs with.
+     */
+    static void failAll(final List<? extends UsbIrp> list,
+        final UsbException exception)
+    {
+        for (final UsbIrp irp: list)
+        {
+            irp.setUsbException(exception);
+            irp.complete();
+        }
+    }
+
+    /**
+     * Appends the specified IRP to the queue and starts the queue processor
+     * if needed. Must be called while holding the append lock.
      * 
      * @param irp
-     *            The control IRP to queue.
+     *            The IRP to queue.
+     * @param timeout
+     *            The number of milliseconds to wait for free space when the
+     *            queue is full. 0 to fail right away, negative to wait
+     *            forever.
+     * @throws UsbQueueFullException
+     *             When queue is still full after the timeout.
+     * @throws UsbException
+     *             When interrupted while waiting for free space.
      */
-    public final void add(final T irp)
+    private void append(final T irp, final long timeout) throws UsbException
     {
+        reserve(timeout);
+        this.pending.incrementAndGet();
         this.irps.add(irp);
+        if (this.awaitingIrps)
+        {
+            synchronized (this.irps)
+            {
+                this.irps.notifyAll();
+            }
+        }
 
         // Start the queue processor if not already running.
-        if (this.processor == null)
+        if (this.scheduled.compareAndSet(false, true))
+            getExecutor().execute(this.processor);
+    }
+
+    /**
+     * Processes the specified IRP on the calling thread when the queue is
+     * idle. This saves handing the IRP to the queue processor thread and
+     * waking up the caller from there. Control IRPs are then transferred
+     * completely on the calling thread. The transfers of other IRPs are
+     * still completed by the thread handling the transfer events which
+     * wakes up the calling thread. When the queue is not idle then the IRP
+     * is queued behind the other IRPs to keep the order and the configured
+     * IRP queue timeout applies. This method doesn't wait for the completion of an
+     * IRP which has been queued or submitted asynchronously.
+     * 
+     * @param irp
+     *            The IRP to process.
+     * @throws UsbException
+     *             When IRP had to be queued and the queue is full or when
+     *             interrupted while waiting for free space.
+     */
+    public final void addOrProcess(final T irp) throws UsbException
+    {
+        // The queue is idle when no IRP is pending (Including IRPs which
+        // are processed but whose events are not yet sent) and the queue
+        // processor is not running.
+        if (this.aborting || !this.pending.compareAndSet(0, 1))
+        {
+            add(irp);
+            return;
+        }
+        if (!this.scheduled.compareAndSet(false, true))
+        {
+            this.pending.decrementAndGet();
+            add(irp);
+            return;
+        }
+
+        boolean finished = true;
+        try
+        {
+            finished = !submitIrp(irp);
+        }
+        catch (final UsbException e)
+        {
+            irp.setUsbException(e);
+            awaitTransfers();
+        }
+        if (finished) completeIrp(irp);
+
+        // Hand over IRPs which were queued in the meantime to the queue
+        // processor
+        this.scheduled.set(false);
+        if (!this.irps.isEmpty() && this.scheduled.compareAndSet(false, true))
+            getExecutor().execute(this.processor);
+        synchronized (this.irps)
+        {
+            this.irps.notifyAll();
+        }
+    }
+
+    /**
+     * Queues the specified IRP for processing and returns a future which is
+     * done when the IRP is complete. When the queue is full then the
+     * configured IRP queue timeout applies.
+     * 
+     * @param irp
+     *            The IRP to queue.
+     * @return The future of the IRP.
+     * @throws UsbException
+     *             When queue is full or when interrupted while waiting for
+     *             free space.
+     */
+    public final IrpFuture<T> submit(final T irp) throws UsbException
+    {
+        return submit(irp, getConfig().getIrpQueueTimeout());
+    }
+
+    /**
+     * Queues the specified IRP for processing and returns a future which is
+     * done when the IRP is complete.
+     * 
+     * @param irp
+     *            The IRP to queue.
+     * @param timeout
+     *            The number of milliseconds to wait for free space when the
+     *            queue is full. 0 to fail right away, negative to wait
+     *            forever.
+     * @return The future of the IRP.
+     * @throws UsbQueueFullException
+     *             When queue is still full after the timeout.
+     * @throws UsbException
+     *             When interrupted while waiting for free space.
+     */
+    public final IrpFuture<T> submit(final T irp, final long timeout)
+        throws UsbException
+    {
+        final IrpFuture<T> future = new IrpFuture<T>(irp);
+        this.futures.put(irp, future);
+        try
+        {
+            add(irp, timeout);
+        }
+        catch (final UsbException e)
+        {
+            this.futures.remove(irp);
+            throw e;
+        }
+        return future;
+    }
+
+    /**
+     * Reserves space for one IRP in the queue.
+     * 
+     * @param timeout
+     *            The number of milliseconds to wait for free space. 0 to fail
+     *            right away, negative to wait forever.
+     * @throws UsbQueueFullException
+     *             When queue is still full after the timeout.
+     * @throws UsbException
+     *             When interrupted while waiting.
+     */
+    private void reserve(final long timeout) throws UsbException
+    {
+        final int capacity = getCapacity();
+        if (tryReserve(capacity)) return;
+        if (timeout == 0) throw new UsbQueueFullException(capacity);
+        final long deadline = System.currentTimeMillis() + timeout;
+        synchronized (this.irps)
+        {
+            this.waiting++;
+            try
+            {
+                // The capacity is read again because it may have been changed
+                // while waiting
+                while (!tryReserve(getCapacity()))
+                {
+                    if (timeout < 0)
+                    {
+                        this.irps.wait();
+                    }
+                    else
+                    {
+                        final long remaining =
+                            deadline - System.currentTimeMillis();
+                        if (remaining <= 0)
+                            throw new UsbQueueFullException(getCapacity());
+                        this.irps.wait(remaining);
+                    }
+                }
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new UsbException(
+                    "Interrupted while waiting for free space in IRP queue");
+            }
+            finally
+            {
+                this.waiting--;
+            }
+        }
+    }
+
+    /**
+     * Tries to reserve space for one IRP in the queue.
+     * 
+     * @param capacity
+     *            The queue capacity. 0 if queue is unbounded.
+     * @return True if space was reserved, false if queue is full.
+     */
+    private boolean tryReserve(final int capacity)
+    {
+        if (capacity == 0)
+        {
+            this.size.incrementAndGet();
+            return true;
+        }
+        while (true)
+        {
+            final int size = this.size.get();
+            if (size >= capacity) return false;
+            if (this.size.compareAndSet(size, size + 1)) return true;
+        }
+    }
+
+    /**
+     * Removes the next IRP from the queue and frees its space.
+     * 
+     * @return The removed IRP or null if queue is empty.
+     */
+    private T poll()
+    {
+        final T irp = this.irps.poll();
+        if (irp != null)
+        {
+            this.size.decrementAndGet();
+            if (this.waiting > 0)
+            {
+                synchronized (this.irps)
+                {
+                    this.irps.notifyAll();
+                }
+            }
+        }
+        return irp;
+    }
+
+    /**
+     * Returns the next queued IRP without removing it. When the queue is
+     * empty then this method waits until an IRP is queued, the deadline is
+     * reached or the queue is aborted. Must only be called by the queue
+     * processor.
+     * 
+     * @param deadline
+     *            The deadline as a {@link System#nanoTime()} value.
+     * @return The next queued IRP or null if none.
+     */
+    protected final T peekIrp(final long deadline)
+    {
+        T irp = this.irps.peek();
+        if (irp != null) return irp;
+        synchronized (this.irps)
         {
-            this.processor = new Thread(new Runnable()
+            this.awaitingIrps = true;
+            try
             {
-                @Override
-                public void run()
+                while ((irp = this.irps.peek()) == null && !this.aborting)
                 {
-                    process();
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    TimeUnit.NANOSECONDS.timedWait(this.irps, remaining);
                 }
-            });
-            this.processor.setDaemon(true);
-            this.processor.setName("usb4java IRP Queue Processor");
-            this.processor.start();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                this.awaitingIrps = false;
+            }
+        }
+        return irp;
+    }
+
+    /**
+     * Removes the specified IRP from the queue if it is still the next
+     * queued IRP. Must only be called by the queue processor.
+     * 
+     * @param irp
+     *            The IRP previously returned by {@link #peekIrp(long)}.
+     * @return True if IRP was removed, false if it was discarded in the
+     *         meantime.
+     */
+    protected final boolean removeIrp(final T irp)
+    {
+        synchronized (this.irps)
+        {
+            if (this.irps.peek() != irp) return false;
+            poll();
+            return true;
+        }
+    }
+
+    /**
+     * Returns the maximum number of queued IRPs. The capacity is read from
+     * the configuration on first access unless it was set explicitly.
+     * 
+     * @return The capacity. 0 if queue is unbounded.
+     */
+    public final int getCapacity()
+    {
+        int capacity = this.capacity;
+        if (capacity < 0)
+        {
+            capacity = getConfig().getIrpQueueCapacity();
+            this.capacity = capacity;
+        }
+        return capacity;
+    }
+
+    /**
+     * Sets the maximum number of queued IRPs. IRPs which are already queued
+     * are kept even when they exceed the new capacity.
+     * 
+     * @param capacity
+     *            The capacity. 0 for an unbounded queue.
+     */
+    public final void setCapacity(final int capacity)
+    {
+        if (capacity < 0)
+            throw new IllegalArgumentException(
+                "capacity must not be negative");
+        this.capacity = capacity;
+        synchronized (this.irps)
+        {
+            this.irps.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the number of queued IRPs which are not yet processed. IRPs
+     * with asynchronous transfers in flight are not counted.
+     * 
+     * @return The number of queued IRPs.
+     */
+    public final int size()
+    {
+        return this.size.get();
+    }
+
+    /**
+     * Returns the executor running the queue processor. The executor is
+     * obtained from the device on first access.
+     * 
+     * @return The executor.
+     */
+    private synchronized Executor getExecutor()
+    {
+        if (this.executor == null)
+            this.executor = getDevice().getIrpQueueExecutor();
+        return this.executor;
+    }
+
+    /**
+     * Checks if the queue processor runs on the shared thread pool. A pooled
+     * processor must never hold its thread while a transfer is running
+     * because a few idle IN endpoints would otherwise occupy all pool
+     * threads. So bulk and interrupt IRPs are always transferred
+     * asynchronously and the processor gives up its thread when the
+     * transfer window is full.
+     * 
+     * @return True if queue processor is pooled, false if not.
+     */
+    protected final boolean isPooled()
+    {
+        return getConfig().getIrpExecutor() == IrpExecutors.Strategy.POOL;
+    }
+
+    /**
+     * Checks if a pooled queue processor must give up its thread because
+     * the transfer window is full.
+     * 
+     * @return True if processor must yield, false if not.
+     */
+    private boolean isWindowBlocked()
+    {
+        final TransferWindow window = this.window;
+        return window != null && window.isFull() && isPooled();
+    }
+
+    /**
+     * Returns the next IRP to process. When the queue is empty (or when a
+     * pooled processor has to wait for a free transfer slot) then the
+     * processor is marked as no longer scheduled.
+     * 
+     * @return The next IRP or null if processor has to stop.
+     */
+    private T nextIrp()
+    {
+        while (true)
+        {
+            final T irp = isWindowBlocked() ? null : poll();
+            if (irp != null) return irp;
+            this.scheduled.set(false);
+
+            // Continue if an IRP was added (or a transfer slot was freed)
+            // after polling and no other thread scheduled a new processor
+            if (this.irps.isEmpty() || isWindowBlocked()
+                || !this.scheduled.compareAndSet(false, true)) return null;
         }
     }
 
     /**
      * Processes the queue. Methods returns when the queue is empty.
+     * Asynchronous transfers which are still in flight are completed later
+     * by the event loop of the device manager.
      */
     final void process()
     {
         // Get the next IRP
-        T irp = this.irps.poll();
+        T irp = nextIrp();
         
-        // If there are no IRPs to process then mark the thread as closing
-        // right away. Otherwise process the IRP (and more IRPs from the queue
-        // if present).
-        if (irp == null)
+        // Process the IRP (and more IRPs from the queue if present).
+        while (irp != null)
         {
-            this.processor = null;
+            // Process the IRP. IRPs which are submitted asynchronously
+            // are finished later when the transfer is completed.
+            boolean finished = true;
+            try
+            {
+                irp = coalesce(irp);
+                finished = !submitIrp(irp);
+            }
+            catch (final UsbException e)
+            {
+                irp.setUsbException(e);
+
+                // Failed IRP must not overtake the IRPs in flight
+                awaitTransfers();
+            }
+
+            // Get next IRP and mark the processor as idle before sending
+            // the events for the previous IRP
+            final T nextIrp = nextIrp();
+
+            // Finish the previous IRP
+            if (finished) completeIrp(irp);
+
+            // Process next IRP (if present)
+            irp = nextIrp;
         }
-        else
+
+        // No more IRPs are present in the queue so terminate the thread.
+        synchronized (this.irps)
+        {
+            this.irps.notifyAll();
+        }
+    }
+
+    /**
+     * Completes the specified IRP, sends the events and completes its
+     * future.
+     * 
+     * @param irp
+     *            The IRP to complete.
+     */
+    @SuppressWarnings("unchecked")
+    private void completeIrp(final T irp)
+    {
+        if (irp instanceof CoalescedIrp)
+        {
+            final CoalescedIrp merged = (CoalescedIrp) irp;
+            merged.distribute();
+            for (final UsbIrp part: merged.getIrps())
+                completeIrp((T) part);
+            return;
+        }
+        irp.complete();
+        finishIrp(irp);
+        this.pending.decrementAndGet();
+        if (!this.futures.isEmpty())
+        {
+            final IrpFuture<T> future = this.futures.remove(irp);
+            if (future != null) future.done(false);
+        }
+    }
+
+    /**
+     * Waits until all asynchronous transfers in flight are finished.
+     */
+    private void awaitTransfers()
+    {
+        final TransferWindow window = this.window;
+        if (window != null) window.awaitEmpty();
+    }
+
+    /**
+     * Submits the IRP. When the subclass provides an asynchronous transfer
+     * for the IRP then this transfer is submitted and the IRP is finished
+     * later when the transfer is completed. Otherwise the IRP is processed
+     * synchronously.
+     * 
+     * @param irp
+     *            The IRP to submit.
+     * @return True if IRP was submitted asynchronously, false if it was
+     *         processed synchronously.
+     * @throws UsbException
+     *             When processing or submitting the IRP fails.
+     */
+    private boolean submitIrp(final T irp) throws UsbException
+    {
+        final AsyncTransfer transfer = createTransfer(irp);
+        if (transfer == null)
+        {
+            // Synchronous IRPs must wait for previous asynchronous ones to
+            // keep the order
+            awaitTransfers();
+            processIrp(irp);
+            return false;
+        }
+        final TransferWindow window = getTransferWindow();
+        window.submit(transfer);
+
+        // Cancel the transfer right away if queue was aborted in the meantime
+        if (this.aborting) window.cancelAll();
+        return true;
+    }
+
+    /**
+     * Merges the specified IRP with following queued IRPs. The default
+     * implementation doesn't merge IRPs. Subclasses can use
+     * {@link #peekIrp(long)} and {@link #removeIrp(UsbIrp)} to take more
+     * IRPs from the queue and return a {@link CoalescedIrp} which is
+     * processed instead of them.
+     * 
+     * @param irp
+     *            The IRP taken from the queue.
+     * @return The IRP to process.
+     */
+    protected T coalesce(final T irp)
+    {
+        return irp;
+    }
+
+    /**
+     * Returns the maximum number of asynchronous transfers this queue keeps
+     * in flight.
+     * 
+     * @return The capacity of the transfer window. At least 1.
+     */
+    protected int getTransferWindowCapacity()
+    {
+        return Math.max(1, getConfig().getInFlightTransfers());
+    }
+
+    /**
+     * Returns the transfer window for asynchronous transfers. The window is
+     * created on first access.
+     * 
+     * @return The transfer window.
+     */
+    private synchronized TransferWindow getTransferWindow()
+    {
+        if (this.window == null)
         {
-            while (irp != null)
+            this.window = new TransferWindow(
+                getDevice().getTransferBackend(),
+                getTransferWindowCapacity(),
+                new TransferListener()
+                {
+                    @Override
+                    public void transferCompleted(final AsyncTransfer transfer)
+                    {
+                        finishAsyncIrp(transfer);
+                    }
+                });
+        }
+        return this.window;
+    }
+
+    /**
+     * Finishes the IRP of a completed asynchronous transfer.
+     * 
+     * @param transfer
+     *            The completed transfer.
+     */
+    @SuppressWarnings("unchecked")
+    private void finishAsyncIrp(final AsyncTransfer transfer)
+    {
+        final T irp = (T) transfer.getIrp();
+        try
+        {
+            finishTransfer(irp, transfer);
+        }
+        catch (final UsbException e)
+        {
+            irp.setUsbException(e);
+        }
+        completeIrp(irp);
+
+        // A pooled processor may have stopped because the transfer window
+        // was full so restart it now that a slot is free
+        if (!this.irps.isEmpty() && isPooled()
+            && this.scheduled.compareAndSet(false, true))
+            getExecutor().execute(this.processor);
+
+        // Wake up threads waiting for the queue to become idle
+        synchronized (this.irps)
+        {
+            this.irps.notifyAll();
+        }
+    }
+
+    /**
+     * Creates an asynchronous transfer for the specified IRP. The default
+     * implementation returns null so all IRPs are processed synchronously
+     * with {@link #processIrp(UsbIrp)}.
+     * 
+     * @param irp
+     *            The IRP to create the transfer for.
+     * @return The transfer to submit or null to process the IRP
+     *         synchronously.
+     * @throws UsbException
+     *             When transfer could not be created.
+     */
+    protected AsyncTransfer createTransfer(final T irp) throws UsbException
+    {
+        return null;
+    }
+
+    /**
+     * Transfers the result of a completed asynchronous transfer into the IRP.
+     * 
+     * @param irp
+     *            The IRP to finish.
+     * @param transfer
+     *            The completed transfer.
+     * @throws UsbException
+     *             When the transfer failed.
+     */
+    protected void finishTransfer(final T irp, final AsyncTransfer transfer)
+        throws UsbException
+    {
+        transfer.checkStatus("Transfer error");
+        irp.setActualLength(transfer.getActualLength());
+    }
+
+    /**
+     * Submits the specified transfer and waits until it is completed. The
+     * transfer is cancelled right away when the queue is aborted or when the
+     * waiting thread is interrupted.
+     * 
+     * @param transfer
+     *            The transfer to submit. It must not have a listener.
+     * @param message
+     *            The error message to use when transfer failed.
+     * @throws UsbException
+     *             When transfer could not be submitted or failed. A
+     *             cancelled transfer is reported with a UsbAbortException.
+     */
+    protected final void awaitTransfer(final AsyncTransfer transfer,
+        final String message) throws UsbException
+    {
+        final TransferBackend backend = getDevice().getTransferBackend();
+        final CountDownLatch completed = new CountDownLatch(1);
+        transfer.setListener(new TransferListener()
+        {
+            @Override
+            public void transferCompleted(final AsyncTransfer transfer)
+            {
+                completed.countDown();
+            }
+        });
+        this.active = transfer;
+        try
+        {
+            final int result = backend.submit(transfer);
+            if (result < 0)
+            {
+                throw ExceptionUtils.createPlatformException(
+                    "Unable to submit transfer", result);
+            }
+
+            // Cancel the transfer right away if queue was aborted in the
+            // meantime
+            if (this.aborting) backend.cancel(transfer);
+
+            // The buffer belongs to the transfer until it is completed so
+            // an interrupt only cancels it
+            boolean interrupted = false;
+            while (completed.getCount() > 0)
             {
-                // Process the IRP
                 try
                 {
-                    processIrp(irp);
+                    completed.await();
                 }
-                catch (final UsbException e)
+                catch (final InterruptedException e)
                 {
-                    irp.setUsbException(e);
+                    interrupted = true;
+                    backend.cancel(transfer);
                 }
-    
-                // Get next IRP and mark the thread as closing before sending
-                // the events for the previous IRP
-                final T nextIrp = this.irps.poll();
-                if (nextIrp == null) this.processor = null;
-    
-                // Finish the previous IRP
-                irp.complete();
-                finishIrp(irp);
-    
-                // Process next IRP (if present)
-                irp = nextIrp;
             }
+            if (interrupted) Thread.currentThread().interrupt();
         }
-
-        // No more IRPs are present in the queue so terminate the thread.
-        synchronized (this.irps)
+        finally
         {
-            this.irps.notifyAll();
+            this.active = null;
         }
+        transfer.checkStatus(message);
     }
 
     /**
@@ -149,21 +926,48 @@ abstract class AbstractIrpQueue<T extends UsbIrp>
     protected abstract void finishIrp(final UsbIrp irp);
 
     /**
-     * Aborts all queued IRPs. The IRP which is currently processed can't be
-     * aborted. This method returns as soon as no more IRPs are in the queue and
-     * no more are processed.
+     * Aborts all queued IRPs. Asynchronous transfers in flight and the
+     * transfer the queue processor is currently waiting for are cancelled
+     * and their IRPs are completed with a UsbAbortException. This method
+     * returns as soon as no more IRPs are in the queue and no more are
+     * processed.
      */
     public final void abort()
     {
         this.aborting = true;
-        this.irps.clear();
+        while (true)
+        {
+            final T irp;
+            synchronized (this.irps)
+            {
+                // Wakes up a processor waiting for more IRPs
+                this.irps.notifyAll();
+                irp = poll();
+            }
+            if (irp == null) break;
+            this.pending.decrementAndGet();
+
+            // Discarded IRPs are never completed, only their futures are
+            final IrpFuture<T> future = this.futures.remove(irp);
+            if (future != null) future.done(true);
+        }
+        final TransferWindow window = this.window;
+        if (window != null) window.cancelAll();
+        final AsyncTransfer active = this.active;
+        if (active != null && !active.isCompleted())
+            getDevice().getTransferBackend().cancel(active);
         while (isBusy())
         {
+            // Transfers in flight are only finished when their listener
+            // call has returned which is signalled by the window
+            awaitTransfers();
             try
             {
                 synchronized (this.irps)
                 {
-                    if (isBusy()) this.irps.wait();
+                    final TransferWindow current = this.window;
+                    if (isBusy() && (current == null || current.isIdle()))
+                        this.irps.wait();
                 }
             }
             catch (final InterruptedException e)
@@ -176,13 +980,16 @@ abstract class AbstractIrpQueue<T extends UsbIrp>
 
     /**
      * Checks if queue is busy. A busy queue is a queue which is currently
-     * processing IRPs or which still has IRPs in the queue.
+     * processing IRPs, which still has IRPs in the queue or which still has
+     * asynchronous transfers in flight.
      * 
      * @return True if queue is busy, false if not.
      */
     public final boolean isBusy()
     {
-        return !this.irps.isEmpty() || this.processor != null;
+        final TransferWindow window = this.window;
+        return !this.irps.isEmpty() || this.scheduled.get()
+            || (window != null && !window.isIdle());
     }
 
     /**
@@ -192,7 +999,7 @@ abstract class AbstractIrpQueue<T extends UsbIrp>
      */
     protected final Config getConfig()
     {
-        return Services.getInstance().getConfig();
+        return getDevice().getConfig();
     }
 
     /**
@@ -216,22 +1023,38 @@ abstract class AbstractIrpQueue<T extends UsbIrp>
     protected final void processControlIrp(final UsbControlIrp irp)
         throws UsbException
     {
+        final ByteBuffer direct = getDirectBuffer(irp);
+        final BufferPool pool = getDevice().getBufferPool();
         final ByteBuffer buffer =
-            ByteBuffer.allocateDirect(irp.getLength());
-        buffer.put(irp.getData(), irp.getOffset(), irp.getLength());
-        buffer.rewind();
-        final DeviceHandle handle = getDevice().open();
-        final int result = LibUsb.controlTransfer(handle, irp.bmRequestType(),
-            irp.bRequest(), irp.wValue(), irp.wIndex(), buffer,
-            getConfig().getTimeout());
-        if (result < 0)
-        {
-            throw ExceptionUtils.createPlatformException(
-                "Unable to submit control message", result);
-        }
-        buffer.rewind();
-        buffer.get(irp.getData(), irp.getOffset(), result);
-        irp.setActualLength(result);
+            direct != null ? direct : pool.acquire(irp.getLength());
+        try
+        {
+            if (direct == null)
+            {
+                buffer.put(irp.getData(), irp.getOffset(), irp.getLength());
+                buffer.rewind();
+            }
+            final DeviceHandle handle = getDevice().open();
+            final int result = LibUsb.controlTransfer(handle,
+                irp.bmRequestType(), irp.bRequest(), irp.wValue(),
+                irp.wIndex(), buffer.slice(),
+                getTimeout(irp, getEndpointAddress(), false));
+            if (result < 0)
+            {
+                throw ExceptionUtils.createPlatformException(
+                    "Unable to submit control message", result);
+            }
+            if (direct == null)
+            {
+                buffer.rewind();
+                buffer.get(irp.getData(), irp.getOffset(), result);
+            }
+            irp.setActualLength(result);
+        }
+        finally
+        {
+            if (direct == null) pool.release(buffer);
+        }
         if (irp.getActualLength() != irp.getLength()
             && !irp.getAcceptShortPacket())
         {
@@ -239,6 +1062,98 @@ abstract class AbstractIrpQueue<T extends UsbIrp>
         }
     }
     
+    /**
+     * Returns the address of the endpoint this queue transfers data to or
+     * from. The default implementation returns the address of the default
+     * control endpoint.
+     * 
+     * @return The endpoint address.
+     */
+    protected byte getEndpointAddress()
+    {
+        return 0;
+    }
+
+    /**
+     * Returns the transfer timeout for the specified IRP. The timeout of the
+     * IRP has precedence over the timeout configured for the endpoint. When
+     * neither is set then OUT and control transfers use the global timeout
+     * and IN transfers wait forever.
+     * 
+     * @param irp
+     *            The IRP.
+     * @param address
+     *            The endpoint address.
+     * @param in
+     *            If this is an IN transfer on a bulk, interrupt or
+     *            isochronous endpoint.
+     * @return The timeout in milliseconds. 0 for no timeout.
+     */
+    protected final long getTimeout(final UsbIrp irp, final byte address,
+        final boolean in)
+    {
+        long timeout = -1;
+        if (irp instanceof Irp)
+            timeout = ((Irp) irp).getTimeout();
+        else if (irp instanceof ControlIrp)
+            timeout = ((ControlIrp) irp).getTimeout();
+        if (timeout >= 0) return timeout;
+        if (getConfig().hasEndpointTimeouts())
+        {
+            final UsbDeviceDescriptor descriptor =
+                getDevice().getUsbDeviceDescriptor();
+            timeout = getConfig().getEndpointTimeout(descriptor.idVendor(),
+                descriptor.idProduct(), address);
+            if (timeout >= 0) return timeout;
+        }
+        return in ? 0 : getConfig().getTimeout();
+    }
+
+    /**
+     * Checks if the specified IRP carries its data in a direct buffer.
+     * 
+     * @param irp
+     *            The IRP.
+     * @return True if IRP has a direct buffer, false if it uses a byte array.
+     */
+    protected static boolean hasDirectBuffer(final UsbIrp irp)
+    {
+        if (irp instanceof Irp) return ((Irp) irp).getBuffer() != null;
+        if (irp instanceof ControlIrp)
+            return ((ControlIrp) irp).getBuffer() != null;
+        return false;
+    }
+
+    /**
+     * Returns the data region of the direct buffer of the specified IRP.
+     * The returned buffer shares its content with the buffer of the IRP so
+     * data is transferred without copying.
+     * 
+     * @param irp
+     *            The IRP.
+     * @return The data region starting at index 0 and ending at the limit
+     *         or null if the IRP uses a byte array.
+     * @throws UsbException
+     *             When the IRP length exceeds the remaining buffer size.
+     */
+    protected static ByteBuffer getDirectBuffer(final UsbIrp irp)
+        throws UsbException
+    {
+        final ByteBuffer buffer;
+        if (irp instanceof Irp)
+            buffer = ((Irp) irp).getBuffer();
+        else if (irp instanceof ControlIrp)
+            buffer = ((ControlIrp) irp).getBuffer();
+        else
+            buffer = null;
+        if (buffer == null) return null;
+        final ByteBuffer region = buffer.duplicate();
+        if (irp.getLength() > region.remaining())
+            throw new UsbException("IRP length exceeds the buffer size");
+        region.limit(region.position() + irp.getLength());
+        return region.slice();
+    }
+
     /**
      * Checks if this queue is currently aborting.
      * 
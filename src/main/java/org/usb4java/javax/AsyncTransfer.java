@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+
+import javax.usb.UsbException;
+import javax.usb.UsbIrp;
+
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * An asynchronous transfer for a single IRP. This class only describes the
+ * transfer and holds its result. The actual native transfer is managed by
+ * the {@link TransferBackend} the transfer is submitted to.
+ *
+ * @author usb4java Team
+ */
+final class AsyncTransfer
+{
+    /** The IRP this transfer belongs to. Null if not bound to an IRP. */
+    private final UsbIrp irp;
+
+    /** The device handle. */
+    private final DeviceHandle handle;
+
+    /** The endpoint address. */
+    private final byte endpoint;
+
+    /** The transfer type (One of the LibUsb.TRANSFER_TYPE_* constants). */
+    private final byte type;
+
+    /**
+     * The direct data buffer. The data starts at index 0 and ends at the
+     * limit of the buffer.
+     */
+    private final ByteBuffer buffer;
+
+    /** The timeout in milliseconds. 0 for no timeout. */
+    private final long timeout;
+
+    /** The listener to inform when the transfer is completed. */
+    private volatile TransferListener listener;
+
+    /** The transfer status. Only valid when transfer is completed. */
+    private volatile int status;
+
+    /** The number of actually transferred bytes. */
+    private volatile int actualLength;
+
+    /** If transfer is completed. */
+    private volatile boolean completed;
+
+    /** The bulk stream ID. 0 if transfer doesn't target a stream. */
+    private int streamId;
+
+    /** The isochronous packet lengths. Null for other transfer types. */
+    private int[] isoPacketLengths;
+
+    /** The isochronous packet results. Null for other transfer types. */
+    private int[] isoPacketStatus, isoPacketActualLengths;
+
+    /**
+     * Constructor.
+     *
+     * @param irp
+     *            The IRP this transfer belongs to. Null if transfer is not
+     *            bound to an IRP (Like the transfers of a pipe stream).
+     * @param handle
+     *            The device handle. Must not be null.
+     * @param endpoint
+     *            The endpoint address.
+     * @param type
+     *            The transfer type (One of the LibUsb.TRANSFER_TYPE_*
+     *            constants).
+     * @param buffer
+     *            The direct data buffer. Must not be null. The data starts at
+     *            index 0 and ends at the limit of the buffer. The capacity
+     *            may be larger.
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout.
+     */
+    AsyncTransfer(final UsbIrp irp, final DeviceHandle handle,
+        final byte endpoint, final byte type, final ByteBuffer buffer,
+        final long timeout)
+    {
+        if (handle == null)
+            throw new IllegalArgumentException("handle must be set");
+        if (buffer == null || !buffer.isDirect())
+            throw new IllegalArgumentException(
+                "buffer must be a direct buffer");
+        this.irp = irp;
+        this.handle = handle;
+        this.endpoint = endpoint;
+        this.type = type;
+        this.buffer = buffer;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the IRP this transfer belongs to.
+     *
+     * @return The IRP or null if transfer is not bound to an IRP.
+     */
+    public UsbIrp getIrp()
+    {
+        return this.irp;
+    }
+
+    /**
+     * Returns the device handle.
+     *
+     * @return The device handle. Never null.
+     */
+    public DeviceHandle getHandle()
+    {
+        return this.handle;
+    }
+
+    /**
+     * Returns the endpoint address.
+     *
+     * @return The endpoint address.
+     */
+    public byte getEndpoint()
+    {
+        return this.endpoint;
+    }
+
+    /**
+     * Returns the transfer type.
+     *
+     * @return The transfer type (One of the LibUsb.TRANSFER_TYPE_*
+     *         constants).
+     */
+    public byte getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Returns the direct data buffer.
+     *
+     * @return The data buffer. Never null.
+     */
+    public ByteBuffer getBuffer()
+    {
+        return this.buffer;
+    }
+
+    /**
+     * Returns the timeout.
+     *
+     * @return The timeout in milliseconds. 0 for no timeout.
+     */
+    public long getTimeout()
+    {
+        return this.timeout;
+    }
+
+    /**
+     * Returns the bulk stream ID.
+     *
+     * @return The stream ID. 0 if transfer doesn't target a stream.
+     */
+    public int getStreamId()
+    {
+        return this.streamId;
+    }
+
+    /**
+     * Sets the bulk stream ID. Only used for transfers of type
+     * LibUsb.TRANSFER_TYPE_BULK_STREAM.
+     *
+     * @param streamId
+     *            The stream ID.
+     */
+    void setStreamId(final int streamId)
+    {
+        this.streamId = streamId;
+    }
+
+    /**
+     * Sets the lengths of the isochronous packets of this transfer.
+     *
+     * @param lengths
+     *            The packet lengths. Must not be null.
+     */
+    void setIsoPacketLengths(final int[] lengths)
+    {
+        if (lengths == null)
+            throw new IllegalArgumentException("lengths must be set");
+        this.isoPacketLengths = lengths.clone();
+        this.isoPacketStatus = new int[lengths.length];
+        this.isoPacketActualLengths = new int[lengths.length];
+    }
+
+    /**
+     * Returns the number of isochronous packets.
+     *
+     * @return The number of isochronous packets. 0 if this is not an
+     *         isochronous transfer.
+     */
+    public int getIsoPacketCount()
+    {
+        return this.isoPacketLengths == null ? 0
+            : this.isoPacketLengths.length;
+    }
+
+    /**
+     * Returns the length of the specified isochronous packet.
+     *
+     * @param index
+     *            The packet index.
+     * @return The packet length.
+     */
+    public int getIsoPacketLength(final int index)
+    {
+        return this.isoPacketLengths[index];
+    }
+
+    /**
+     * Returns the status of the specified isochronous packet.
+     *
+     * @param index
+     *            The packet index.
+     * @return The packet status (One of the LibUsb.TRANSFER_* status
+     *         constants). Only valid when transfer is completed.
+     */
+    public int getIsoPacketStatus(final int index)
+    {
+        return this.isoPacketStatus[index];
+    }
+
+    /**
+     * Returns the number of actually transferred bytes of the specified
+     * isochronous packet.
+     *
+     * @param index
+     *            The packet index.
+     * @return The number of actually transferred bytes.
+     */
+    public int getIsoPacketActualLength(final int index)
+    {
+        return this.isoPacketActualLengths[index];
+    }
+
+    /**
+     * Called by the transfer backend before completing the transfer to
+     * report the result of an isochronous packet.
+     *
+     * @param index
+     *            The packet index.
+     * @param status
+     *            The packet status.
+     * @param actualLength
+     *            The number of actually transferred bytes.
+     */
+    void setIsoPacketResult(final int index, final int status,
+        final int actualLength)
+    {
+        this.isoPacketStatus[index] = status;
+        this.isoPacketActualLengths[index] = actualLength;
+    }
+
+    /**
+     * Sets the listener which is informed when the transfer is completed.
+     *
+     * @param listener
+     *            The listener to set. Null to unset.
+     */
+    void setListener(final TransferListener listener)
+    {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the transfer status.
+     *
+     * @return The transfer status (One of the LibUsb.TRANSFER_* status
+     *         constants). Only valid when transfer is completed.
+     */
+    public int getStatus()
+    {
+        return this.status;
+    }
+
+    /**
+     * Returns the number of actually transferred bytes.
+     *
+     * @return The number of actually transferred bytes.
+     */
+    public int getActualLength()
+    {
+        return this.actualLength;
+    }
+
+    /**
+     * Checks if this transfer is completed.
+     *
+     * @return True if completed, false if not.
+     */
+    public boolean isCompleted()
+    {
+        return this.completed;
+    }
+
+    /**
+     * Called by the transfer backend when the transfer has been completed.
+     *
+     * @param status
+     *            The transfer status.
+     * @param actualLength
+     *            The number of actually transferred bytes.
+     */
+    void complete(final int status, final int actualLength)
+    {
+        this.status = status;
+        this.actualLength = actualLength;
+        this.completed = true;
+        final TransferListener listener = this.listener;
+        if (listener != null) listener.transferCompleted(this);
+    }
+
+    /**
+     * Ensures the transfer was completed successfully.
+     *
+     * @param message
+     *            The error message to use when transfer failed.
+     * @throws UsbException
+     *             When transfer was not successful.
+     */
+    void checkStatus(final String message) throws UsbException
+    {
+        if (this.status != LibUsb.TRANSFER_COMPLETED)
+            throw ExceptionUtils.createTransferException(message, this.status);
+    }
+}
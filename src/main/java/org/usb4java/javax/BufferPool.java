@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of reusable direct byte buffers. Buffers are managed in size classes
+ * which are powers of two so a buffer can be reused for all requests which
+ * fall into the same size class. The total size of the buffers kept in the
+ * pool is limited. Buffers which don't fit into the pool anymore are simply
+ * dropped and left to the garbage collector.
+ *
+ * @author usb4java Team
+ */
+final class BufferPool
+{
+    /** The smallest size class (64 bytes). */
+    private static final int MIN_SHIFT = 6;
+
+    /** The largest size class (1 GiB). */
+    private static final int MAX_SHIFT = 30;
+
+    /** The pooled buffers. One queue per size class. */
+    private final List<Queue<ByteBuffer>> buffers;
+
+    /** The maximum number of bytes kept in the pool. */
+    private final long capacity;
+
+    /** The number of bytes currently kept in the pool. */
+    private final AtomicLong size = new AtomicLong();
+
+    /** The number of direct buffers allocated by this pool. */
+    private final AtomicLong allocations = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity
+     *            The maximum number of bytes kept in the pool. 0 disables
+     *            pooling.
+     */
+    BufferPool(final long capacity)
+    {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity must not be negative");
+        this.capacity = capacity;
+        this.buffers = new ArrayList<Queue<ByteBuffer>>(MAX_SHIFT + 1);
+        for (int i = 0; i <= MAX_SHIFT; i += 1)
+            this.buffers.add(new ConcurrentLinkedQueue<ByteBuffer>());
+    }
+
+    /**
+     * Returns the size class for the specified buffer size.
+     *
+     * @param size
+     *            The buffer size.
+     * @return The size class (The shift of the power of two) or -1 if size is
+     *         too large for pooling.
+     */
+    private static int getSizeClass(final int size)
+    {
+        if (size <= 1 << MIN_SHIFT) return MIN_SHIFT;
+        final int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return shift > MAX_SHIFT ? -1 : shift;
+    }
+
+    /**
+     * Returns a direct buffer with the specified size. The position of the
+     * returned buffer is 0, the limit is the requested size and the byte order
+     * is big endian. The capacity may be larger than the requested size.
+     *
+     * @param size
+     *            The requested buffer size.
+     * @return The direct buffer. Never null.
+     */
+    public ByteBuffer acquire(final int size)
+    {
+        if (size < 0)
+            throw new IllegalArgumentException("size must not be negative");
+        final int sizeClass = getSizeClass(size);
+        ByteBuffer buffer = null;
+        if (sizeClass >= 0)
+        {
+            buffer = this.buffers.get(sizeClass).poll();
+            if (buffer != null) this.size.addAndGet(-buffer.capacity());
+        }
+        if (buffer == null)
+        {
+            this.allocations.incrementAndGet();
+            buffer = ByteBuffer.allocateDirect(
+                sizeClass < 0 ? size : 1 << sizeClass);
+        }
+        buffer.clear();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer must no longer be used by the
+     * caller afterwards. Buffers which were not acquired from a pool or which
+     * don't fit into the pool anymore are ignored.
+     *
+     * @param buffer
+     *            The buffer to release. May be null.
+     */
+    public void release(final ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.isDirect()) return;
+        final int capacity = buffer.capacity();
+        if (Integer.bitCount(capacity) != 1) return;
+        final int sizeClass = getSizeClass(capacity);
+        if (sizeClass < 0 || 1 << sizeClass != capacity) return;
+        if (this.size.addAndGet(capacity) > this.capacity)
+        {
+            this.size.addAndGet(-capacity);
+            return;
+        }
+        this.buffers.get(sizeClass).add(buffer);
+    }
+
+    /**
+     * Returns the maximum number of bytes kept in the pool.
+     *
+     * @return The pool capacity in bytes.
+     */
+    public long getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of bytes currently kept in the pool.
+     *
+     * @return The pool size in bytes.
+     */
+    public long getSize()
+    {
+        return this.size.get();
+    }
+
+    /**
+     * Returns the number of direct buffers allocated by this pool so far.
+     *
+     * @return The number of allocations.
+     */
+    public long getAllocations()
+    {
+        return this.allocations.get();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.usb.UsbIrp;
+import javax.usb.UsbShortPacketException;
+
+/**
+ * IRP which merges the data of several small OUT IRPs so they are written
+ * with a single transfer. The merged IRP itself is never reported to the
+ * application. Instead its result is distributed to the original IRPs.
+ *
+ * @author usb4java Team
+ */
+final class CoalescedIrp extends Irp
+{
+    /** The merged IRPs in transfer order. */
+    private final List<UsbIrp> irps;
+
+    /**
+     * Constructor.
+     *
+     * @param irps
+     *            The IRPs to merge. Must not be empty.
+     */
+    CoalescedIrp(final List<? extends UsbIrp> irps)
+    {
+        if (irps == null || irps.isEmpty())
+            throw new IllegalArgumentException("irps must not be empty");
+        this.irps = new ArrayList<UsbIrp>(irps);
+        int length = 0;
+        for (final UsbIrp irp: irps)
+            length += irp.getLength();
+        final byte[] data = new byte[length];
+        int offset = 0;
+        for (final UsbIrp irp: irps)
+        {
+            System.arraycopy(irp.getData(), irp.getOffset(), data, offset,
+                irp.getLength());
+            offset += irp.getLength();
+        }
+        setData(data);
+        setAcceptShortPacket(true);
+        final UsbIrp first = irps.get(0);
+        if (first instanceof Irp) setTimeout(((Irp) first).getTimeout());
+    }
+
+    /**
+     * Returns the merged IRPs.
+     *
+     * @return The merged IRPs in transfer order.
+     */
+    public List<UsbIrp> getIrps()
+    {
+        return Collections.unmodifiableList(this.irps);
+    }
+
+    /**
+     * Distributes the result of this IRP to the merged IRPs. When this IRP
+     * failed then all merged IRPs get its exception. Otherwise the written
+     * bytes are assigned to the merged IRPs in order.
+     */
+    public void distribute()
+    {
+        int remaining = getActualLength();
+        for (final UsbIrp irp: this.irps)
+        {
+            if (isUsbException())
+            {
+                irp.setUsbException(getUsbException());
+                continue;
+            }
+            final int written = Math.min(remaining, irp.getLength());
+            remaining -= written;
+            irp.setActualLength(written);
+            if (written < irp.getLength() && !irp.getAcceptShortPacket())
+                irp.setUsbException(new UsbShortPacketException());
+        }
+    }
+}
@@ -5,6 +5,8 @@
 
 package org.usb4java.javax;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -23,24 +25,119 @@ final class Config
     /** The default scan interval in milliseconds. */
     private static final int DEFAULT_SCAN_INTERVAL = 500;
 
+    /** The default maximum size of the buffer pool in bytes (4 MiB). */
+    private static final long DEFAULT_BUFFER_POOL_SIZE = 4 * 1024 * 1024;
+
+    /** The default number of isochronous transfers in flight per pipe. */
+    private static final int DEFAULT_ISO_TRANSFERS = 4;
+
+    /** The default number of threads of the shared IRP executor pool. */
+    private static final int DEFAULT_IRP_EXECUTOR_THREADS = 4;
+
     /** Key name for USB communication timeout. */
     private static final String TIMEOUT_KEY = KEY_BASE + "timeout";
 
+    /**
+     * Key prefix for endpoint timeouts. The prefix is followed by the
+     * hexadecimal vendor ID, product ID and endpoint address separated by
+     * dots.
+     */
+    private static final String ENDPOINT_TIMEOUT_KEY = TIMEOUT_KEY + ".";
+
     /** Key name for USB communication timeout. */
     private static final String SCAN_INTERVAL_KEY = KEY_BASE + "scanInterval";
 
     /** Key name for the USBDK usage flag. */
     private static final String USE_USBDK_KEY = KEY_BASE + "useUSBDK";
 
+    /** Key name for the hotplug usage flag. */
+    private static final String HOTPLUG_KEY = KEY_BASE + "hotplug";
+
+    /** Key name for the lazy configuration loading flag. */
+    private static final String LAZY_CONFIGURATIONS_KEY = KEY_BASE
+        + "lazyConfigurations";
+
+    /** Key name for the number of asynchronous transfers per pipe. */
+    private static final String IN_FLIGHT_TRANSFERS_KEY = KEY_BASE
+        + "inFlightTransfers";
+
+    /** Key name for the maximum size of the buffer pool. */
+    private static final String BUFFER_POOL_SIZE_KEY = KEY_BASE
+        + "bufferPoolSize";
+
+    /** Key name for the maximum size of a synchronous transfer. */
+    private static final String MAX_TRANSFER_SIZE_KEY = KEY_BASE
+        + "maxTransferSize";
+
+    /** Key name for the number of isochronous transfers in flight. */
+    private static final String ISO_TRANSFERS_KEY = KEY_BASE + "isoTransfers";
+
+    /** Key name for the IRP queue capacity. */
+    private static final String IRP_QUEUE_CAPACITY_KEY = KEY_BASE
+        + "irpQueueCapacity";
+
+    /** Key name for the IRP queue submit timeout. */
+    private static final String IRP_QUEUE_TIMEOUT_KEY = KEY_BASE
+        + "irpQueueTimeout";
+
+    /** Key name for the IRP executor strategy. */
+    private static final String IRP_EXECUTOR_KEY = KEY_BASE + "irpExecutor";
+
+    /** Key name for the number of threads of the shared IRP executor pool. */
+    private static final String IRP_EXECUTOR_THREADS_KEY = KEY_BASE
+        + "irpExecutorThreads";
+
     /** The timeout for USB communication in milliseconds. */
     private int timeout = DEFAULT_TIMEOUT;
 
+    /** The timeouts of specific endpoints in milliseconds. */
+    private final Map<Long, Long> endpointTimeouts = new HashMap<Long, Long>();
+
     /** The scan interval in milliseconds. */
     private int scanInterval = DEFAULT_SCAN_INTERVAL;
 
     /** If USBDK is to be used on Windows. */
     private boolean useUSBDK = false;
 
+    /** If libusb hotplug notifications are used when available. */
+    private boolean hotplug = true;
+
+    /** If configuration descriptors are read on first access. */
+    private boolean lazyConfigurations = false;
+
+    /**
+     * The number of asynchronous transfers kept in flight per pipe. 0 for
+     * synchronous transfers.
+     */
+    private int inFlightTransfers = 0;
+
+    /** The maximum number of bytes kept in the buffer pool. */
+    private long bufferPoolSize = DEFAULT_BUFFER_POOL_SIZE;
+
+    /**
+     * The maximum number of bytes in a single synchronous transfer. 0 for
+     * wMaxPacketSize, negative for unlimited.
+     */
+    private int maxTransferSize = 0;
+
+    /** The number of isochronous transfers kept in flight per pipe. */
+    private int isoTransfers = DEFAULT_ISO_TRANSFERS;
+
+    /** The maximum number of queued IRPs per queue. 0 for unbounded. */
+    private int irpQueueCapacity = 0;
+
+    /**
+     * The number of milliseconds to wait for free space in a full IRP queue.
+     * 0 to reject right away, negative to wait forever.
+     */
+    private long irpQueueTimeout = -1;
+
+    /** The strategy for running the IRP queue processors. */
+    private IrpExecutors.Strategy irpExecutor = IrpExecutors.Strategy.THREAD;
+
+    /** The number of threads of the shared IRP executor pool. */
+    private int irpExecutorThreads = DEFAULT_IRP_EXECUTOR_THREADS;
+
     /**
      * Constructs new configuration from the specified properties.
      *
@@ -55,6 +152,16 @@ final class Config
             this.timeout = Integer.valueOf(properties.getProperty(TIMEOUT_KEY));
         }
 
+        // Read the timeouts of specific endpoints
+        for (final String key: properties.stringPropertyNames())
+        {
+            if (key.startsWith(ENDPOINT_TIMEOUT_KEY))
+            {
+                this.endpointTimeouts.put(parseEndpointKey(key),
+                    Long.valueOf(properties.getProperty(key)));
+            }
+        }
+
         // Read the USB device scan interval
         if (properties.containsKey(SCAN_INTERVAL_KEY))
         {
@@ -67,6 +174,124 @@ final class Config
         {
             this.useUSBDK = Boolean.valueOf(properties.getProperty(USE_USBDK_KEY));
         }
+
+        // Read the hotplug usage flag
+        if (properties.containsKey(HOTPLUG_KEY))
+        {
+            this.hotplug = Boolean.valueOf(properties.getProperty(HOTPLUG_KEY));
+        }
+
+        // Read the lazy configuration loading flag
+        if (properties.containsKey(LAZY_CONFIGURATIONS_KEY))
+        {
+            this.lazyConfigurations = Boolean.valueOf(properties.getProperty(
+                LAZY_CONFIGURATIONS_KEY));
+        }
+
+        // Read the number of asynchronous transfers per pipe
+        if (properties.containsKey(IN_FLIGHT_TRANSFERS_KEY))
+        {
+            this.inFlightTransfers = Math.max(0, Integer.valueOf(
+                properties.getProperty(IN_FLIGHT_TRANSFERS_KEY)));
+        }
+
+        // Read the maximum size of the buffer pool
+        if (properties.containsKey(BUFFER_POOL_SIZE_KEY))
+        {
+            this.bufferPoolSize = Math.max(0, Long.valueOf(
+                properties.getProperty(BUFFER_POOL_SIZE_KEY)));
+        }
+
+        // Read the maximum size of a synchronous transfer
+        if (properties.containsKey(MAX_TRANSFER_SIZE_KEY))
+        {
+            this.maxTransferSize = Integer.valueOf(properties.getProperty(
+                MAX_TRANSFER_SIZE_KEY));
+        }
+
+        // Read the number of isochronous transfers in flight
+        if (properties.containsKey(ISO_TRANSFERS_KEY))
+        {
+            this.isoTransfers = Math.max(1, Integer.valueOf(
+                properties.getProperty(ISO_TRANSFERS_KEY)));
+        }
+
+        // Read the IRP queue capacity
+        if (properties.containsKey(IRP_QUEUE_CAPACITY_KEY))
+        {
+            this.irpQueueCapacity = Math.max(0, Integer.valueOf(
+                properties.getProperty(IRP_QUEUE_CAPACITY_KEY)));
+        }
+
+        // Read the IRP queue submit timeout
+        if (properties.containsKey(IRP_QUEUE_TIMEOUT_KEY))
+        {
+            this.irpQueueTimeout = Long.valueOf(properties.getProperty(
+                IRP_QUEUE_TIMEOUT_KEY));
+        }
+
+        // Read the IRP executor strategy
+        if (properties.containsKey(IRP_EXECUTOR_KEY))
+        {
+            this.irpExecutor = IrpExecutors.Strategy.parse(
+                properties.getProperty(IRP_EXECUTOR_KEY));
+        }
+
+        // Read the number of threads of the shared IRP executor pool
+        if (properties.containsKey(IRP_EXECUTOR_THREADS_KEY))
+        {
+            this.irpExecutorThreads = Math.max(1, Integer.valueOf(
+                properties.getProperty(IRP_EXECUTOR_THREADS_KEY)));
+        }
+    }
+
+    /**
+     * Parses the vendor ID, product ID and endpoint address of an endpoint
+     * timeout key.
+     *
+     * @param key
+     *            The key to parse.
+     * @return The endpoint key.
+     * @throws IllegalArgumentException
+     *             When key is invalid.
+     */
+    private static long parseEndpointKey(final String key)
+    {
+        final String[] parts =
+            key.substring(ENDPOINT_TIMEOUT_KEY.length()).split("\\.");
+        try
+        {
+            if (parts.length == 3)
+            {
+                return endpointKey(Integer.parseInt(parts[0], 16),
+                    Integer.parseInt(parts[1], 16),
+                    Integer.parseInt(parts[2], 16));
+            }
+        }
+        catch (final NumberFormatException e)
+        {
+            // Handled below
+        }
+        throw new IllegalArgumentException("Invalid endpoint timeout key: "
+            + key);
+    }
+
+    /**
+     * Builds the key of an endpoint timeout.
+     *
+     * @param vendorId
+     *            The vendor ID.
+     * @param productId
+     *            The product ID.
+     * @param address
+     *            The endpoint address.
+     * @return The endpoint key.
+     */
+    private static long endpointKey(final int vendorId, final int productId,
+        final int address)
+    {
+        return ((long) (vendorId & 0xffff) << 24)
+            | ((productId & 0xffff) << 8) | (address & 0xff);
     }
 
     /**
@@ -79,6 +304,42 @@ final class Config
         return this.timeout;
     }
 
+    /**
+     * Checks if timeouts are configured for specific endpoints.
+     *
+     * @return True if endpoint timeouts are configured, false if not.
+     */
+    public boolean hasEndpointTimeouts()
+    {
+        return !this.endpointTimeouts.isEmpty();
+    }
+
+    /**
+     * Returns the timeout configured for a specific endpoint. Endpoint
+     * timeouts are configured with properties like
+     * {@code org.usb4java.javax.timeout.1234.5678.81} where the hexadecimal
+     * numbers are the vendor ID, the product ID and the endpoint address.
+     * Unlike the global timeout an endpoint timeout also applies to IN
+     * transfers.
+     *
+     * @param vendorId
+     *            The vendor ID of the device.
+     * @param productId
+     *            The product ID of the device.
+     * @param address
+     *            The endpoint address. 0 for the default control endpoint.
+     * @return The timeout in milliseconds, 0 for no timeout or -1 if no
+     *         timeout is configured for the endpoint.
+     */
+    public long getEndpointTimeout(final short vendorId,
+        final short productId, final byte address)
+    {
+        if (this.endpointTimeouts.isEmpty()) return -1;
+        final Long timeout = this.endpointTimeouts.get(
+            endpointKey(vendorId, productId, address));
+        return timeout == null ? -1 : Math.max(0, timeout);
+    }
+
     /**
      * Returns the scan interval in milliseconds.
      *
@@ -98,4 +359,146 @@ final class Config
     {
         return this.useUSBDK;
     }
+
+    /**
+     * Checks if libusb hotplug notifications are used to detect attached
+     * and detached devices. Scanning then happens when a notification was
+     * received and otherwise only every 20 scan intervals to retry devices
+     * which failed to enumerate. When hotplug is disabled or not supported
+     * by the platform then the USB busses are scanned in the scan interval.
+     *
+     * @return True if hotplug notifications are used, false if not.
+     */
+    public boolean isHotplug()
+    {
+        return this.hotplug;
+    }
+
+    /**
+     * Checks if the configuration descriptors of a device are read on first
+     * access instead of when the device is found by the scanner. This speeds
+     * up the first scan on hosts with many devices. Devices with unreadable
+     * configuration descriptors are then no longer ignored by the scanner
+     * but report a {@link ScanException} when their configurations are
+     * accessed.
+     *
+     * @return True if configurations are loaded lazily, false if not.
+     */
+    public boolean isLazyConfigurations()
+    {
+        return this.lazyConfigurations;
+    }
+
+    /**
+     * Returns the number of asynchronous transfers which are kept in flight
+     * per bulk or interrupt pipe. The IRPs of such pipes are completed by the
+     * event handling thread so pipe listeners must not block.
+     *
+     * @return The number of transfers in flight per pipe. 0 if IRPs are
+     *         processed with synchronous transfers.
+     */
+    public int getInFlightTransfers()
+    {
+        return this.inFlightTransfers;
+    }
+
+    /**
+     * Returns the maximum number of bytes kept in the pool of direct buffers
+     * which are used for staging IRP data.
+     *
+     * @return The maximum buffer pool size in bytes. 0 if pooling is
+     *         disabled.
+     */
+    public long getBufferPoolSize()
+    {
+        return this.bufferPoolSize;
+    }
+
+    /**
+     * Returns the maximum number of bytes submitted to libusb in a single
+     * synchronous bulk or interrupt transfer. Larger IRPs are split into
+     * multiple transfers. Positive values are rounded down to a multiple of
+     * the maximum packet size of the endpoint.
+     *
+     * @return The maximum transfer size. 0 if IRPs are split into
+     *         wMaxPacketSize chunks, negative if the whole IRP is submitted
+     *         in one transfer.
+     */
+    public int getMaxTransferSize()
+    {
+        return this.maxTransferSize;
+    }
+
+    /**
+     * Returns the number of asynchronous transfers which are kept in flight
+     * per isochronous pipe. Submitting at least this number of IRPs in
+     * advance keeps the stream running without gaps. Isochronous IRPs are
+     * always completed by the event handling thread.
+     *
+     * @return The number of isochronous transfers in flight per pipe.
+     */
+    public int getIsoTransfers()
+    {
+        return this.isoTransfers;
+    }
+
+    /**
+     * Returns the strategy for running the IRP queue processors. THREAD
+     * starts a new thread each time a queue starts processing, WORKER keeps
+     * a worker thread per queue, POOL shares a bounded thread pool between
+     * all queues and VIRTUAL uses virtual threads when available (Java 21
+     * and later). With WORKER and POOL a listener must not wait for an IRP
+     * of the queue which informed it.
+     *
+     * <p>A pooled queue processor never holds its thread while a bulk or
+     * interrupt transfer is running, otherwise a few IN pipes waiting for
+     * data without timeout would occupy all pool threads and stall every
+     * other queue. So with POOL these transfers are always submitted
+     * asynchronously (even when {@link #getInFlightTransfers()} is 0) and
+     * the IRPs are finished by the event handling thread. Control transfers
+     * are still synchronous and occupy a pool thread for up to the
+     * configured timeout.</p>
+     *
+     * @return The IRP executor strategy.
+     */
+    public IrpExecutors.Strategy getIrpExecutor()
+    {
+        return this.irpExecutor;
+    }
+
+    /**
+     * Returns the number of threads of the IRP executor pool shared by all
+     * queues. Only used with the POOL strategy.
+     *
+     * @return The number of threads.
+     */
+    public int getIrpExecutorThreads()
+    {
+        return this.irpExecutorThreads;
+    }
+
+    /**
+     * Returns the maximum number of IRPs which can be queued per pipe and per
+     * device control queue. The capacity can be changed per queue at
+     * runtime.
+     *
+     * @return The IRP queue capacity. 0 if queues are unbounded.
+     */
+    public int getIrpQueueCapacity()
+    {
+        return this.irpQueueCapacity;
+    }
+
+    /**
+     * Returns the number of milliseconds the submit methods wait for free
+     * space in a full IRP queue before throwing a
+     * {@link UsbQueueFullException}.
+     *
+     * @return The timeout. 0 if submissions are rejected right away,
+     *         negative if they wait forever.
+     */
+    public long getIrpQueueTimeout()
+    {
+        return this.irpQueueTimeout;
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+
+import javax.usb.util.DefaultUsbControlIrp;
+
+/**
+ * usb4java implementation of UsbControlIrp which can carry its data in a
+ * direct byte buffer instead of a byte array. The buffer is handed to libusb
+ * as is so the data is not copied. Instances are created with
+ * {@link AbstractDevice#createUsbControlIrp(byte, byte, short, short,
+ * ByteBuffer)} or {@link Pipe#createUsbControlIrp(byte, byte, short, short,
+ * ByteBuffer)}.
+ *
+ * The data region starts at the position of the buffer and has the length
+ * of the IRP, which is initially the number of remaining bytes in the
+ * buffer. The position and limit of the buffer are not modified by the
+ * transfer. The byte array of this IRP is empty while a buffer is set.
+ *
+ * @author usb4java Team
+ */
+public class ControlIrp extends DefaultUsbControlIrp
+{
+    /** The empty byte array used while a buffer is set. */
+    private static final byte[] NO_DATA = new byte[0];
+
+    /** The direct data buffer. Null if IRP uses a byte array. */
+    private ByteBuffer buffer;
+
+    /**
+     * The transfer timeout in milliseconds. 0 for no timeout, negative for
+     * the endpoint or global default.
+     */
+    private long timeout = -1;
+
+    /**
+     * Constructs a new control IRP with an empty byte array.
+     *
+     * @param bmRequestType
+     *            The bmRequestType.
+     * @param bRequest
+     *            The bRequest.
+     * @param wValue
+     *            The wValue.
+     * @param wIndex
+     *            The wIndex.
+     */
+    public ControlIrp(final byte bmRequestType, final byte bRequest,
+        final short wValue, final short wIndex)
+    {
+        super(bmRequestType, bRequest, wValue, wIndex);
+    }
+
+    /**
+     * Constructs a new control IRP with the specified direct data buffer.
+     *
+     * @param bmRequestType
+     *            The bmRequestType.
+     * @param bRequest
+     *            The bRequest.
+     * @param wValue
+     *            The wValue.
+     * @param wIndex
+     *            The wIndex.
+     * @param buffer
+     *            The direct data buffer. Must not be null.
+     */
+    public ControlIrp(final byte bmRequestType, final byte bRequest,
+        final short wValue, final short wIndex, final ByteBuffer buffer)
+    {
+        super(bmRequestType, bRequest, wValue, wIndex);
+        setBuffer(buffer);
+    }
+
+    /**
+     * Returns the direct data buffer.
+     *
+     * @return The data buffer or null if the IRP uses a byte array.
+     */
+    public final ByteBuffer getBuffer()
+    {
+        return this.buffer;
+    }
+
+    /**
+     * Sets the direct data buffer. This resets the byte array, the offset
+     * and sets the length to the number of remaining bytes in the buffer.
+     *
+     * @param buffer
+     *            The direct data buffer. Must not be null.
+     */
+    public final void setBuffer(final ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.isDirect())
+            throw new IllegalArgumentException(
+                "buffer must be a direct buffer");
+        super.setData(NO_DATA, 0, 0);
+        this.buffer = buffer;
+        setLength(buffer.remaining());
+    }
+
+    /**
+     * Returns the transfer timeout of this IRP.
+     *
+     * @return The timeout in milliseconds. 0 for no timeout, negative if the
+     *         endpoint or global default is used.
+     */
+    public final long getTimeout()
+    {
+        return this.timeout;
+    }
+
+    /**
+     * Sets the transfer timeout of this IRP. It overrides the timeout
+     * configured for the endpoint and the global timeout. An IRP which is
+     * not completed within the timeout fails with a
+     * {@link UsbTimeoutException}.
+     *
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout, negative to
+     *            use the endpoint or global default.
+     */
+    public final void setTimeout(final long timeout)
+    {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sets the data byte array. This removes the direct data buffer.
+     *
+     * @param data
+     *            The data byte array.
+     * @param offset
+     *            The data offset.
+     * @param length
+     *            The data length.
+     */
+    @Override
+    public void setData(final byte[] data, final int offset, final int length)
+    {
+        super.setData(data, offset, length);
+        this.buffer = null;
+    }
+}
@@ -7,13 +7,15 @@ package org.usb4java.javax;
 
 import java.io.Serializable;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.usb4java.javax.descriptors.SimpleUsbDeviceDescriptor;
 
 /**
  * Unique USB device ID.
  * 
+ * The ID is used as key in the device maps of the scanner so its hash code
+ * is computed once and equality is checked with primitive fields without
+ * allocating anything.
+ * 
  * @author Klaus Reimer (k@ailis.de)
  */
 final class DeviceId implements Serializable
@@ -33,6 +35,12 @@ final class DeviceId implements Serializable
     /** The device descriptor. */
     private final SimpleUsbDeviceDescriptor deviceDescriptor;
 
+    /** The compact key. */
+    private final long key;
+
+    /** The precomputed hash code. */
+    private final int hash;
+
     /**
      * Constructs a new device id.
      * 
@@ -55,17 +63,44 @@ final class DeviceId implements Serializable
         this.portNumber = portNumber;
         this.deviceAddress = deviceAddress;
         this.deviceDescriptor = deviceDescriptor;
+        this.key = createKey(busNumber, deviceAddress, portNumber,
+            deviceDescriptor.idVendor(), deviceDescriptor.idProduct());
+        this.hash = (int) (this.key ^ (this.key >>> 32));
+    }
+
+    /**
+     * Creates the compact key of a device. The key contains the bus number,
+     * device address, port number, vendor ID and product ID. Devices which
+     * are connected at the same time always have different keys because
+     * they differ in bus number or device address.
+     * 
+     * @param busNumber
+     *            The number of the bus the device is connected to.
+     * @param deviceAddress
+     *            The address of the device.
+     * @param portNumber
+     *            The number of the port the device is connected to. 0 if
+     *            unknown.
+     * @param vendorId
+     *            The vendor ID.
+     * @param productId
+     *            The product ID.
+     * @return The compact key.
+     */
+    static long createKey(final int busNumber, final int deviceAddress,
+        final int portNumber, final short vendorId, final short productId)
+    {
+        return ((long) (busNumber & 0xff) << 56)
+            | ((long) (deviceAddress & 0xff) << 48)
+            | ((long) (portNumber & 0xff) << 40)
+            | ((long) (vendorId & 0xffff) << 16)
+            | (productId & 0xffff);
     }
 
     @Override
     public int hashCode()
     {
-        return new HashCodeBuilder()
-            .append(this.busNumber)
-            .append(this.deviceAddress)
-            .append(this.portNumber)
-            .append(this.deviceDescriptor)
-            .toHashCode();
+        return this.hash;
     }
 
     @Override
@@ -74,12 +109,11 @@ final class DeviceId implements Serializable
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         final DeviceId other = (DeviceId) obj;
-        return new EqualsBuilder()
-            .append(this.busNumber, other.busNumber)
-            .append(this.deviceAddress, other.deviceAddress)
-            .append(this.portNumber, other.portNumber)
-            .append(this.deviceDescriptor, other.deviceDescriptor)
-            .isEquals();
+        return this.key == other.key
+            && this.busNumber == other.busNumber
+            && this.deviceAddress == other.deviceAddress
+            && this.portNumber == other.portNumber
+            && this.deviceDescriptor.equals(other.deviceDescriptor);
     }
 
     /**
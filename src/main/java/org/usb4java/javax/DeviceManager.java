@@ -8,17 +8,21 @@ package org.usb4java.javax;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.usb.UsbException;
-import javax.usb.UsbHub;
 import javax.usb.UsbPlatformException;
 
 import org.usb4java.Context;
 import org.usb4java.Device;
 import org.usb4java.DeviceDescriptor;
 import org.usb4java.DeviceList;
+import org.usb4java.HotplugCallback;
+import org.usb4java.HotplugCallbackHandle;
 import org.usb4java.LibUsb;
 import org.usb4java.javax.descriptors.SimpleUsbDeviceDescriptor;
 
@@ -29,22 +33,87 @@ import org.usb4java.javax.descriptors.SimpleUsbDeviceDescriptor;
  */
 final class DeviceManager
 {
+    /**
+     * The factor by which the scan interval is stretched while hotplug
+     * notifications are used. The slow scan picks up devices which could not
+     * be enumerated when they were attached.
+     */
+    private static final int HOTPLUG_SCAN_FACTOR = 20;
+
     /** The virtual USB root hub. */
     private final RootHub rootHub;
 
     /** The libusb context. */
     private final Context context;
 
+    /** The backend for asynchronous transfers. */
+    private final TransferBackend transferBackend;
+
+    /** The event loop which completes the asynchronous transfers. */
+    private final EventLoop eventLoop;
+
+    /** The pool of direct buffers used for staging IRP data. */
+    private final BufferPool bufferPool;
+
+    /** The executors running the IRP queue processors. */
+    private final IrpExecutors irpExecutors;
+
+    /** The configuration. */
+    private final Config config;
+
     /** If scanner already scanned for devices. */
     private boolean scanned = false;
 
     /** The scan interval in milliseconds. */
     private final int scanInterval;
 
+    /** If libusb hotplug notifications are to be used when available. */
+    private final boolean hotplug;
+
+    /** If device configurations are read on first access. */
+    private final boolean lazyConfigurations;
+
+    /** The registered hotplug callback. Null if not registered. */
+    private HotplugCallbackHandle hotplugHandle;
+
+    /**
+     * The attached devices by the ID of their parent device. Devices attached
+     * to the root hub are stored with a null key. Only accessed during scan.
+     */
+    private final Map<DeviceId, List<AbstractDevice>> children =
+        new HashMap<DeviceId, List<AbstractDevice>>();
+
+    /** The ports to which the attached devices are connected by device ID. */
+    private final Map<DeviceId, UsbPorts<Port, AbstractDevice>> parents =
+        new HashMap<DeviceId, UsbPorts<Port, AbstractDevice>>();
+
+    /** Monitor on which the scanner thread waits for the next scan. */
+    private final Object scanSignal = new Object();
+
+    /**
+     * If a hotplug notification requested a scan which is not yet started.
+     * Guarded by scanSignal.
+     */
+    private boolean scanRequested;
+
     /** The currently connected devices. */
     private final Map<DeviceId, AbstractDevice> devices = Collections
         .synchronizedMap(new HashMap<DeviceId, AbstractDevice>());
 
+    /**
+     * The referenced libusb devices of the currently connected devices.
+     * Access must be synchronized on the map.
+     */
+    private final Map<DeviceId, Device> libUsbDevices =
+        new HashMap<DeviceId, Device>();
+
+    /**
+     * The IDs of the devices in libUsbDevices by their fingerprint. Access
+     * must be synchronized on libUsbDevices.
+     */
+    private final Map<Integer, DeviceId> fingerprints =
+        new HashMap<Integer, DeviceId>();
+
     /**
      * Constructs a new device manager.
      *
@@ -59,7 +128,10 @@ final class DeviceManager
     {
         if (rootHub == null)
             throw new IllegalArgumentException("rootHub must be set");
+        this.config = config;
         this.scanInterval = config.getScanInterval();
+        this.hotplug = config.isHotplug();
+        this.lazyConfigurations = config.isLazyConfigurations();
         this.rootHub = rootHub;
         this.context = new Context();
         final int result = LibUsb.init(this.context);
@@ -76,17 +148,113 @@ final class DeviceManager
                 throw ExceptionUtils.createPlatformException("Unable to set USE_USBDK option", usbdkResult);
             }
         }
+        this.transferBackend = new LibUsbTransferBackend(this.context);
+        this.eventLoop = new EventLoop(this.transferBackend);
+        this.bufferPool = new BufferPool(config.getBufferPoolSize());
+        this.irpExecutors = new IrpExecutors(config);
+    }
+
+    /**
+     * Constructs a device manager for tests which completes the transfers
+     * with the specified backend. libusb is not initialized so devices can't
+     * be scanned.
+     *
+     * @param config
+     *            The configuration.
+     * @param transferBackend
+     *            The backend for asynchronous transfers.
+     */
+    DeviceManager(final Config config, final TransferBackend transferBackend)
+    {
+        this.config = config;
+        this.scanInterval = config.getScanInterval();
+        this.hotplug = false;
+        this.lazyConfigurations = true;
+        this.rootHub = null;
+        this.context = null;
+        this.transferBackend = transferBackend;
+        this.eventLoop = null;
+        this.bufferPool = new BufferPool(config.getBufferPoolSize());
+        this.irpExecutors = new IrpExecutors(config);
     }
 
     /**
-     * Dispose the USB device manager. This exits the USB context opened by the
-     * constructor.
+     * Dispose the USB device manager. This stops the event loop and exits the
+     * USB context opened by the constructor.
      */
     public void dispose()
     {
+        synchronized (this)
+        {
+            if (this.hotplugHandle != null)
+            {
+                LibUsb.hotplugDeregisterCallback(this.context,
+                    this.hotplugHandle);
+                this.hotplugHandle = null;
+            }
+        }
+        this.eventLoop.stop();
+        this.irpExecutors.shutdown();
+        synchronized (this.libUsbDevices)
+        {
+            for (final Device device: this.libUsbDevices.values())
+                LibUsb.unrefDevice(device);
+            this.libUsbDevices.clear();
+            this.fingerprints.clear();
+        }
         LibUsb.exit(this.context);
     }
 
+    /**
+     * Returns the backend for asynchronous transfers.
+     *
+     * @return The transfer backend. Never null.
+     */
+    public TransferBackend getTransferBackend()
+    {
+        return this.transferBackend;
+    }
+
+    /**
+     * Returns the pool of direct buffers used for staging IRP data.
+     *
+     * @return The buffer pool. Never null.
+     */
+    public BufferPool getBufferPool()
+    {
+        return this.bufferPool;
+    }
+
+    /**
+     * Checks if device configurations are read on first access.
+     *
+     * @return True if configurations are loaded lazily, false if not.
+     */
+    public boolean isLazyConfigurations()
+    {
+        return this.lazyConfigurations;
+    }
+
+    /**
+     * Returns the configuration.
+     *
+     * @return The configuration. Never null.
+     */
+    public Config getConfig()
+    {
+        return this.config;
+    }
+
+    /**
+     * Returns the executors running the IRP queue processors.
+     *
+     * @return The IRP executors. Never null.
+     */
+    public IrpExecutors getIrpExecutors()
+    {
+        return this.irpExecutors;
+    }
+
     /**
      * Creates a device ID from the specified device.
      *
@@ -117,87 +285,131 @@ final class DeviceManager
     }
 
     /**
-     * Scans the specified ports for removed devices.
+     * Returns the fingerprint of the specified device. The fingerprint is
+     * made of the bus number, device address and port number which can be
+     * read without any I/O.
      *
-     * @param ports
-     *            The ports to scan for removals.
+     * @param device
+     *            The libusb device.
+     * @return The fingerprint.
      */
-    private void scanRemovedDevices(final UsbPorts<Port, AbstractDevice> ports)
+    private static int getFingerprint(final Device device)
     {
-        for (AbstractDevice device: ports.getAttachedUsbDevices())
-        {
-            // Scan for removed child devices if current device is a hub
-            if (device.isUsbHub()) scanRemovedDevices((Hub) device);
-
-            // If device is no longer present then remove it
-            if (!this.devices.containsKey(device.getId()))
-                ports.disconnectUsbDevice(device);
-        }
+        return (LibUsb.getBusNumber(device) & 0xff) << 16
+            | (LibUsb.getDeviceAddress(device) & 0xff) << 8
+            | (LibUsb.getPortNumber(device) & 0xff);
     }
 
     /**
-     * Scans the specified ports for new devices.
+     * Returns the device ID of the specified device. The ID of a device found
+     * by a previous scan is reused when the fingerprint matches and libusb
+     * still reports the same device. Only new devices are identified by
+     * reading their device descriptor.
      *
-     * @param ports
-     *            The ports to scan for new devices.
-     * @param hubId
-     *            The hub ID. Null if scanned hub is the root hub.
+     * @param device
+     *            The libusb device. Must not be null.
+     * @return The device id.
+     * @throws UsbPlatformException
+     *             When device descriptor could not be read from the specified
+     *             device.
      */
-    private void scanNewDevices(final UsbPorts<Port, AbstractDevice> ports,
-        final DeviceId hubId)
+    private DeviceId getId(final Device device) throws UsbPlatformException
     {
-        for (AbstractDevice device: this.devices.values())
+        synchronized (this.libUsbDevices)
         {
-            // Get parent ID from device and reset it to null if we don't
-            // know this parent device (This happens on Windows because some
-            // devices/hubs can't be fully enumerated.)
-            DeviceId parentId = device.getParentId();
-            if (!this.devices.containsKey(parentId)) parentId = null;
+            final DeviceId id = this.fingerprints.get(getFingerprint(device));
 
-            if (DeviceId.equals(parentId, hubId))
-            {
-                if (!ports.isUsbDeviceAttached(device))
-                {
-                    // Connect new devices to the ports of the current hub.
-                    ports.connectUsbDevice(device);
-                }
-
-                // Scan for removed child devices if current device is a hub
-                if (device.isUsbHub()) scanNewDevices((Hub) device,
-                    device.getId());
-            }
+            // The referenced libusb device of a disconnected device is never
+            // reused by libusb so a matching pointer identifies the device
+            final Device known = id == null ? null : this.libUsbDevices.get(id);
+            if (known != null && known.getPointer() == device.getPointer())
+                return id;
         }
+        return createId(device);
+    }
 
+    /**
+     * Returns the ports to which the children of the specified device are
+     * attached.
+     *
+     * @param parentId
+     *            The ID of the parent device. Null for the root hub.
+     * @return The ports. The root hub if parent is not a known hub.
+     */
+    private UsbPorts<Port, AbstractDevice> getPorts(final DeviceId parentId)
+    {
+        if (parentId == null) return this.rootHub;
+        final AbstractDevice parent = this.devices.get(parentId);
+        if (parent == null || !parent.isUsbHub()) return this.rootHub;
+        return (Hub) parent;
     }
 
     /**
-     * Scans the specified hub for changes.
+     * Attaches the specified device to the ports of its parent. The parent
+     * is attached first if needed. Devices with an unknown parent are
+     * attached to the root hub. This happens on Windows because some
+     * devices/hubs can't be fully enumerated.
      *
-     * @param hub
-     *            The hub to scan.
+     * @param device
+     *            The device to attach.
      */
-    public void scan(final UsbHub hub)
+    private void attach(final AbstractDevice device)
     {
-        try
-        {
-            updateDeviceList();
-        }
-        catch (UsbException e)
+        final DeviceId id = device.getId();
+        if (this.parents.containsKey(id)) return;
+        DeviceId parentId = device.getParentId();
+        final AbstractDevice parent =
+            parentId == null ? null : this.devices.get(parentId);
+        if (parent == null || !parent.isUsbHub())
+            parentId = null;
+        else
+            attach(parent);
+        final UsbPorts<Port, AbstractDevice> ports = getPorts(parentId);
+        ports.connectUsbDevice(device);
+        this.parents.put(id, ports);
+        List<AbstractDevice> siblings = this.children.get(parentId);
+        if (siblings == null)
         {
-            throw new ScanException("Unable to scan for USB devices: " + e, e);
+            siblings = new ArrayList<AbstractDevice>();
+            this.children.put(parentId, siblings);
         }
+        siblings.add(device);
+    }
 
-        if (hub.isRootUsbHub())
+    /**
+     * Detaches the specified device and all devices attached to it from
+     * their ports. Children are detached first.
+     *
+     * @param device
+     *            The device to detach.
+     * @param orphans
+     *            The list to which detached children are added which are
+     *            still connected and must be attached again.
+     */
+    private void detach(final AbstractDevice device,
+        final List<AbstractDevice> orphans)
+    {
+        final DeviceId id = device.getId();
+        final List<AbstractDevice> attached = this.children.remove(id);
+        if (attached != null)
         {
-            final RootHub rootHub = (RootHub) hub;
-            scanRemovedDevices(rootHub);
-            scanNewDevices(rootHub, null);
+            for (final AbstractDevice child: attached)
+            {
+                detach(child, orphans);
+                if (this.devices.containsKey(child.getId()))
+                    orphans.add(child);
+            }
         }
-        else
+        final UsbPorts<Port, AbstractDevice> ports = this.parents.remove(id);
+        if (ports == null) return;
+        ports.disconnectUsbDevice(device);
+        final DeviceId parentId =
+            ports == this.rootHub ? null : ((Hub) ports).getId();
+        final List<AbstractDevice> siblings = this.children.get(parentId);
+        if (siblings != null && siblings != attached)
         {
-            final Hub nonRootHub = (Hub) hub;
-            scanRemovedDevices(nonRootHub);
-            scanNewDevices(nonRootHub, nonRootHub.getId());
+            siblings.remove(device);
+            if (siblings.isEmpty()) this.children.remove(parentId);
         }
     }
 
@@ -209,9 +421,10 @@ final class DeviceManager
      *             When libusb reported an error which we can't ignore during
      *             scan.
      */
-    private void updateDeviceList() throws UsbPlatformException
+    private void updateDeviceList(final List<AbstractDevice> added,
+        final List<AbstractDevice> removed) throws UsbPlatformException
     {
-        final List<DeviceId> current = new ArrayList<DeviceId>();
+        final Set<DeviceId> current = new HashSet<DeviceId>();
 
         // Get device list from libusb and abort if it failed
         final DeviceList devices = new DeviceList();
@@ -229,14 +442,14 @@ final class DeviceManager
             {
                 try
                 {
-                    final DeviceId id = createId(libUsbDevice);
+                    final DeviceId id = getId(libUsbDevice);
 
                     AbstractDevice device = this.devices.get(id);
                     if (device == null)
                     {
                         final Device parent = LibUsb.getParent(libUsbDevice);
                         final DeviceId parentId = parent == null ? null :
-                            createId(parent);
+                            getId(parent);
                         final int speed = LibUsb.getDeviceSpeed(libUsbDevice);
                         final boolean isHub = id.getDeviceDescriptor()
                             .bDeviceClass() == LibUsb.CLASS_HUB;
@@ -251,8 +464,20 @@ final class DeviceManager
                                 parentId, speed, libUsbDevice);
                         }
 
-                        // Add new device to global device list.
+                        // Add new device to global device list and keep a
+                        // reference to the libusb device for opening it
                         this.devices.put(id, device);
+                        added.add(device);
+                        synchronized (this.libUsbDevices)
+                        {
+                            if (!this.libUsbDevices.containsKey(id))
+                            {
+                                LibUsb.refDevice(libUsbDevice);
+                                this.libUsbDevices.put(id, libUsbDevice);
+                                this.fingerprints.put(
+                                    getFingerprint(libUsbDevice), id);
+                            }
+                        }
                     }
 
                     // Remember current device as "current"
@@ -265,7 +490,21 @@ final class DeviceManager
                 }
             }
 
-            this.devices.keySet().retainAll(current);
+            synchronized (this.devices)
+            {
+                final Iterator<AbstractDevice> iterator =
+                    this.devices.values().iterator();
+                while (iterator.hasNext())
+                {
+                    final AbstractDevice device = iterator.next();
+                    if (!current.contains(device.getId()))
+                    {
+                        removed.add(device);
+                        iterator.remove();
+                    }
+                }
+            }
+            releaseLibUsbDevices(removed);
         }
         finally
         {
@@ -274,17 +513,60 @@ final class DeviceManager
     }
 
     /**
-     * Scans the USB busses for new or removed devices.
+     * Releases the libusb devices of the specified removed devices.
+     *
+     * @param removed
+     *            The devices which are no longer connected.
+     */
+    private void releaseLibUsbDevices(final List<AbstractDevice> removed)
+    {
+        synchronized (this.libUsbDevices)
+        {
+            for (final AbstractDevice device: removed)
+            {
+                final Device libUsbDevice =
+                    this.libUsbDevices.remove(device.getId());
+                if (libUsbDevice == null) continue;
+                final Integer fingerprint = getFingerprint(libUsbDevice);
+                if (device.getId().equals(this.fingerprints.get(fingerprint)))
+                    this.fingerprints.remove(fingerprint);
+                LibUsb.unrefDevice(libUsbDevice);
+            }
+        }
+    }
+
+    /**
+     * Scans the USB busses for new or removed devices. Only the devices
+     * which were added or removed since the last scan are attached to or
+     * detached from the ports of their hubs.
      */
     public synchronized void scan()
     {
-        scan(this.rootHub);
+        final List<AbstractDevice> added = new ArrayList<AbstractDevice>();
+        final List<AbstractDevice> removed = new ArrayList<AbstractDevice>();
+        try
+        {
+            updateDeviceList(added, removed);
+        }
+        catch (UsbException e)
+        {
+            throw new ScanException("Unable to scan for USB devices: " + e, e);
+        }
+
+        // Detach removed devices. Still connected children of removed hubs
+        // are attached again to the root hub.
+        for (final AbstractDevice device: removed)
+            detach(device, added);
+
+        for (final AbstractDevice device: added)
+            attach(device);
         this.scanned = true;
     }
 
     /**
      * Returns the libusb device for the specified id. The device must be freed
-     * after use.
+     * after use. The devices found by the scanner are looked up directly.
+     * Other devices are searched in the current device list.
      *
      * @param id
      *            The id of the device to return. Must not be null.
@@ -297,6 +579,33 @@ final class DeviceManager
     public Device getLibUsbDevice(final DeviceId id) throws UsbPlatformException
     {
         if (id == null) throw new IllegalArgumentException("id must be set");
+        synchronized (this.libUsbDevices)
+        {
+            final Device device = this.libUsbDevices.get(id);
+            if (device != null)
+            {
+                LibUsb.refDevice(device);
+                return device;
+            }
+        }
+        return findLibUsbDevice(id);
+    }
+
+    /**
+     * Searches the libusb device for the specified id in the current device
+     * list. The device must be freed after use.
+     *
+     * @param id
+     *            The id of the device to return.
+     * @return device The libusb device. Never null.
+     * @throws DeviceNotFoundException
+     *             When the device was not found.
+     * @throws UsbPlatformException
+     *             When libusb reported an error while enumerating USB devices.
+     */
+    private Device findLibUsbDevice(final DeviceId id)
+        throws UsbPlatformException
+    {
 
         final DeviceList devices = new DeviceList();
         final int result = LibUsb.getDeviceList(this.context, devices);
@@ -346,14 +655,91 @@ final class DeviceManager
     }
 
     /**
-     * Starts scanning in the background.
+     * Registers a hotplug callback which requests a scan whenever a device
+     * is attached or detached. The callback is called by the event loop.
+     *
+     * @return True if callback was registered, false if hotplug is not
+     *         supported.
+     */
+    private synchronized boolean registerHotplug()
+    {
+        if (!LibUsb.hasCapability(LibUsb.CAP_HAS_HOTPLUG)) return false;
+        final HotplugCallbackHandle handle = new HotplugCallbackHandle();
+        final int result = LibUsb.hotplugRegisterCallback(this.context,
+            LibUsb.HOTPLUG_EVENT_DEVICE_ARRIVED
+                | LibUsb.HOTPLUG_EVENT_DEVICE_LEFT,
+            LibUsb.HOTPLUG_NO_FLAGS, LibUsb.HOTPLUG_MATCH_ANY,
+            LibUsb.HOTPLUG_MATCH_ANY, LibUsb.HOTPLUG_MATCH_ANY,
+            new HotplugCallback()
+            {
+                @Override
+                public int processEvent(final Context context,
+                    final Device device, final int event,
+                    final Object userData)
+                {
+                    // Scanning is left to the scanner thread because the
+                    // event loop must not be blocked
+                    requestScan();
+                    return 0;
+                }
+            }, null, handle);
+        if (result != LibUsb.SUCCESS) return false;
+        this.hotplugHandle = handle;
+        return true;
+    }
+
+    /**
+     * Requests a scan by the scanner thread.
+     */
+    private void requestScan()
+    {
+        synchronized (this.scanSignal)
+        {
+            this.scanRequested = true;
+            this.scanSignal.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the next scan is due. This is the case when a scan was
+     * requested or when the specified interval has passed.
+     *
+     * @param interval
+     *            The scan interval in milliseconds. 0 to wait until a scan
+     *            is requested.
+     */
+    private void awaitScan(final long interval)
+    {
+        synchronized (this.scanSignal)
+        {
+            try
+            {
+                if (!this.scanRequested) this.scanSignal.wait(interval);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            this.scanRequested = false;
+        }
+    }
+
+    /**
+     * Starts the event loop and scanning in the background. When libusb
+     * supports hotplug notifications then the scanner scans when a device
+     * was attached or detached and otherwise only in a much longer interval.
+     * Without hotplug notifications it scans in the configured interval.
      */
     public void start()
     {
+        this.eventLoop.start();
+
         // Do not start the scan thread when interval is set to 0
-        final int scanInterval = this.scanInterval;
-        if (scanInterval == 0) return;
+        if (this.scanInterval == 0) return;
 
+        final long interval = this.hotplug && registerHotplug()
+            ? (long) this.scanInterval * HOTPLUG_SCAN_FACTOR
+            : this.scanInterval;
         final Thread thread = new Thread(new Runnable()
         {
             @Override
@@ -361,14 +747,7 @@ final class DeviceManager
             {
                 while (true)
                 {
-                    try
-                    {
-                        Thread.sleep(scanInterval);
-                    }
-                    catch (final InterruptedException e)
-                    {
-                        Thread.currentThread().interrupt();
-                    }
+                    awaitScan(interval);
                     scan();
                 }
             }
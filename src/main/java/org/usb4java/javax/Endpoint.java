@@ -23,6 +23,9 @@ final class Endpoint implements UsbEndpoint
     /** The interface this endpoint belongs to. */
     private final Interface iface;
 
+    /** The device this endpoint belongs to. */
+    private final AbstractDevice device;
+
     /** The endpoint descriptor. */
     private final UsbEndpointDescriptor descriptor;
 
@@ -41,16 +44,55 @@ final class Endpoint implements UsbEndpoint
         final EndpointDescriptor descriptor)
     {
         this.iface = iface;
+        this.device = iface.getDevice();
         this.descriptor = new SimpleUsbEndpointDescriptor(descriptor);
         this.pipe = new Pipe(this);
     }
 
+    /**
+     * Constructs an endpoint without an interface. Used by tests which run
+     * the IRP queue of the pipe without a real device.
+     * 
+     * @param device
+     *            The device this endpoint belongs to.
+     * @param descriptor
+     *            The endpoint descriptor.
+     */
+    Endpoint(final AbstractDevice device,
+        final UsbEndpointDescriptor descriptor)
+    {
+        this.iface = null;
+        this.device = device;
+        this.descriptor = descriptor;
+        this.pipe = new Pipe(this);
+    }
+
     @Override
     public Interface getUsbInterface()
     {
         return this.iface;
     }
 
+    /**
+     * Returns the device this endpoint belongs to.
+     * 
+     * @return The device.
+     */
+    AbstractDevice getDevice()
+    {
+        return this.device;
+    }
+
+    /**
+     * Returns the USB pipe for this endpoint.
+     * 
+     * @return The USB pipe.
+     */
+    Pipe getPipe()
+    {
+        return this.pipe;
+    }
+
     @Override
     public UsbEndpointDescriptor getUsbEndpointDescriptor()
     {
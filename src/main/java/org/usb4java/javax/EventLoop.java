@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+/**
+ * Event handling thread for a libusb context. A single thread handles the
+ * events of all devices and pipes of the context and completes their
+ * asynchronous transfers. libusb serializes event handling per context anyway
+ * so more than one thread per context would not gain anything.
+ *
+ * @author usb4java Team
+ */
+final class EventLoop implements Runnable
+{
+    /** The time in milliseconds to wait for events in a single run. */
+    private static final long EVENT_TIMEOUT = 500;
+
+    /** The transfer backend which handles the events. */
+    private final TransferBackend backend;
+
+    /** The event handling thread. Null if not running. */
+    private Thread thread;
+
+    /** If event loop is running. */
+    private volatile boolean running;
+
+    /**
+     * Constructor.
+     *
+     * @param backend
+     *            The transfer backend which handles the events. Must not be
+     *            null.
+     */
+    EventLoop(final TransferBackend backend)
+    {
+        if (backend == null)
+            throw new IllegalArgumentException("backend must be set");
+        this.backend = backend;
+    }
+
+    /**
+     * Starts the event handling thread. Does nothing if already running.
+     */
+    public synchronized void start()
+    {
+        if (this.thread != null) return;
+        this.running = true;
+        this.thread = new Thread(this);
+        this.thread.setDaemon(true);
+        this.thread.setName("usb4java Event Handler");
+        this.thread.start();
+    }
+
+    /**
+     * Stops the event handling thread and waits for its termination. Does
+     * nothing if not running.
+     */
+    public synchronized void stop()
+    {
+        final Thread thread = this.thread;
+        if (thread == null) return;
+        this.running = false;
+        this.backend.interrupt();
+        try
+        {
+            thread.join();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        this.thread = null;
+    }
+
+    /**
+     * Checks if the event loop is running.
+     *
+     * @return True if running, false if not.
+     */
+    public boolean isRunning()
+    {
+        return this.running;
+    }
+
+    @Override
+    public void run()
+    {
+        while (this.running)
+        {
+            this.backend.handleEvents(EVENT_TIMEOUT);
+        }
+    }
+}
@@ -5,7 +5,10 @@
 
 package org.usb4java.javax;
 
+import javax.usb.UsbAbortException;
+import javax.usb.UsbException;
 import javax.usb.UsbPlatformException;
+import javax.usb.UsbStallException;
 
 import org.usb4java.LibUsb;
 
@@ -25,7 +28,8 @@ final class ExceptionUtils
     }
     
     /**
-     * Creates a USB platform exception.
+     * Creates a USB platform exception. A timeout is reported with a
+     * {@link UsbTimeoutException}.
      * 
      * @param message
      *            The error message.
@@ -36,7 +40,41 @@ final class ExceptionUtils
     static UsbPlatformException createPlatformException(final String message,
         final int errorCode)
     {
-        return new UsbPlatformException(String.format("USB error %d: %s: %s", 
-            -errorCode, message, LibUsb.strError(errorCode)), errorCode);
+        final String text = String.format("USB error %d: %s: %s", 
+            -errorCode, message, LibUsb.strError(errorCode));
+        if (errorCode == LibUsb.ERROR_TIMEOUT)
+            return new UsbTimeoutException(text);
+        return new UsbPlatformException(text, errorCode);
+    }
+
+    /**
+     * Creates a USB exception for a failed asynchronous transfer.
+     * 
+     * @param message
+     *            The error message.
+     * @param status
+     *            The transfer status (One of the LibUsb.TRANSFER_* status
+     *            constants).
+     * @return The USB exception.
+     */
+    static UsbException createTransferException(final String message,
+        final int status)
+    {
+        switch (status)
+        {
+            case LibUsb.TRANSFER_CANCELLED:
+                return new UsbAbortException();
+            case LibUsb.TRANSFER_STALL:
+                return new UsbStallException();
+            case LibUsb.TRANSFER_TIMED_OUT:
+                return createPlatformException(message, LibUsb.ERROR_TIMEOUT);
+            case LibUsb.TRANSFER_NO_DEVICE:
+                return createPlatformException(message,
+                    LibUsb.ERROR_NO_DEVICE);
+            case LibUsb.TRANSFER_OVERFLOW:
+                return createPlatformException(message, LibUsb.ERROR_OVERFLOW);
+            default:
+                return createPlatformException(message, LibUsb.ERROR_IO);
+        }
     }
 }
@@ -12,15 +12,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.usb.UsbConfiguration;
+import javax.usb.UsbConst;
 import javax.usb.UsbDisconnectedException;
+import javax.usb.UsbEndpoint;
 import javax.usb.UsbException;
 import javax.usb.UsbInterface;
 import javax.usb.UsbInterfaceDescriptor;
 import javax.usb.UsbInterfacePolicy;
 import javax.usb.UsbNotActiveException;
+import javax.usb.UsbNotClaimedException;
 
 import org.usb4java.EndpointDescriptor;
 import org.usb4java.InterfaceDescriptor;
+import org.usb4java.LibUsb;
 import org.usb4java.javax.descriptors.SimpleUsbInterfaceDescriptor;
 
 /**
@@ -28,7 +33,7 @@ import org.usb4java.javax.descriptors.SimpleUsbInterfaceDescriptor;
  * 
  * @author Klaus Reimer (k@ailis.de)
  */
-final class Interface implements UsbInterface
+public final class Interface implements UsbInterface
 {
     /** The configuration this interface belongs to. */
     private final Configuration configuration;
@@ -62,6 +67,16 @@ final class Interface implements UsbInterface
     }
 
 
+    /**
+     * Returns the device this interface belongs to.
+     * 
+     * @return The device.
+     */
+    AbstractDevice getDevice()
+    {
+        return this.configuration.getUsbDevice();
+    }
+
     /**
      * Ensures this setting and configuration is active.
      *
@@ -87,6 +102,100 @@ final class Interface implements UsbInterface
         this.configuration.getUsbDevice().checkConnected();
     }
 
+    /**
+     * Ensures the interface is claimed.
+     * 
+     * @throws UsbNotClaimedException
+     *             When interface is not claimed.
+     */
+    private void checkClaimed()
+    {
+        if (!isClaimed())
+            throw new UsbNotClaimedException("Interface is not claimed.");
+    }
+
+    /**
+     * Returns the addresses of the bulk endpoints of this interface.
+     * 
+     * @return The bulk endpoint addresses.
+     * @throws UsbException
+     *             When interface has no bulk endpoints.
+     */
+    private byte[] getBulkEndpointAddresses() throws UsbException
+    {
+        final List<Byte> addresses = new ArrayList<Byte>();
+        for (final Endpoint endpoint: this.endpoints.values())
+        {
+            if (endpoint.getType() == UsbConst.ENDPOINT_TYPE_BULK)
+                addresses.add(endpoint.getUsbEndpointDescriptor()
+                    .bEndpointAddress());
+        }
+        if (addresses.isEmpty())
+            throw new UsbException("Interface has no bulk endpoints");
+        final byte[] result = new byte[addresses.size()];
+        for (int i = 0; i < result.length; i += 1)
+            result[i] = addresses.get(i);
+        return result;
+    }
+
+    /**
+     * Allocates USB 3 bulk streams on all bulk endpoints of this claimed
+     * interface. The stream IDs 1 to the returned number of streams can then
+     * be set on the IRPs submitted to the bulk pipes with
+     * {@link Irp#setStreamId(int)}.
+     * 
+     * @param numStreams
+     *            The number of streams to allocate.
+     * @return The number of allocated streams. This may be less than the
+     *         requested number.
+     * @throws UsbException
+     *             When interface has no bulk endpoints or when the device or
+     *             the host controller doesn't support bulk streams.
+     */
+    public int allocStreams(final int numStreams) throws UsbException
+    {
+        if (numStreams < 1)
+            throw new IllegalArgumentException(
+                "numStreams must be at least 1");
+        checkActive();
+        checkClaimed();
+        checkConnected();
+        final int result = LibUsb.allocStreams(
+            this.configuration.getUsbDevice().open(), numStreams,
+            getBulkEndpointAddresses());
+        if (result < 0)
+        {
+            throw ExceptionUtils.createPlatformException(
+                "Unable to allocate bulk streams", result);
+        }
+        return result;
+    }
+
+    /**
+     * Frees the USB 3 bulk streams allocated on the bulk endpoints of this
+     * interface. Stream IRPs which are still queued or in flight are aborted
+     * first.
+     * 
+     * @throws UsbException
+     *             When streams could not be freed.
+     */
+    public void freeStreams() throws UsbException
+    {
+        checkActive();
+        checkClaimed();
+        checkConnected();
+        final byte[] addresses = getBulkEndpointAddresses();
+        for (final Endpoint endpoint: this.endpoints.values())
+            endpoint.getPipe().abortStreams();
+        final int result = LibUsb.freeStreams(
+            this.configuration.getUsbDevice().open(), addresses);
+        if (result < 0)
+        {
+            throw ExceptionUtils.createPlatformException(
+                "Unable to free bulk streams", result);
+        }
+    }
+
     @Override
     public void claim() throws UsbException
     {
@@ -175,14 +284,14 @@ final class Interface implements UsbInterface
     }
 
     @Override
-    public List<Endpoint> getUsbEndpoints()
+    public List<UsbEndpoint> getUsbEndpoints()
     {
-        return Collections.unmodifiableList(new ArrayList<Endpoint>(
+        return Collections.unmodifiableList(new ArrayList<UsbEndpoint>(
             this.endpoints.values()));
     }
 
     @Override
-    public Endpoint getUsbEndpoint(final byte address)
+    public UsbEndpoint getUsbEndpoint(final byte address)
     {
         return this.endpoints.get(address);
     }
@@ -194,7 +303,7 @@ final class Interface implements UsbInterface
     }
 
     @Override
-    public Configuration getUsbConfiguration()
+    public UsbConfiguration getUsbConfiguration()
     {
         return this.configuration;
     }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+import java.util.EventListener;
+
+import javax.usb.UsbException;
+import javax.usb.UsbPipe;
+
+/**
+ * Listener for the reports of an interrupt IN pipe polled with
+ * {@link Pipe#startPolling(InterruptListener)}. The methods are called from
+ * the event handling thread which is shared by all devices so they must
+ * return quickly.
+ *
+ * @author usb4java Team
+ */
+public interface InterruptListener extends EventListener
+{
+    /**
+     * Called when a report has been received.
+     *
+     * @param pipe
+     *            The polled pipe.
+     * @param data
+     *            The report data from the position to the limit of the
+     *            buffer. The buffer is reused for the next transfer so it is
+     *            only valid until this method returns.
+     * @param timestamp
+     *            The value of {@link System#nanoTime()} when the report was
+     *            received.
+     */
+    void reportReceived(UsbPipe pipe, ByteBuffer data, long timestamp);
+
+    /**
+     * Called when polling failed. Polling is stopped afterwards.
+     *
+     * @param pipe
+     *            The polled pipe.
+     * @param e
+     *            The exception describing the failure.
+     */
+    void errorOccurred(UsbPipe pipe, UsbException e);
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+
+import javax.usb.UsbException;
+import javax.usb.UsbPipe;
+
+import org.usb4java.LibUsb;
+
+/**
+ * Polls an interrupt IN endpoint. The host controller polls the endpoint
+ * according to its interval as long as a transfer is armed, so no thread
+ * is needed per endpoint. Enough transfers are kept armed to bridge the
+ * latency of the event handling thread which is shared by all endpoints.
+ * Each report is passed to the listener with the time it was received.
+ *
+ * @author usb4java Team
+ */
+final class InterruptPoller implements PipeStreamListener
+{
+    /**
+     * The time in microseconds the armed transfers must cover when the
+     * event handling thread is busy.
+     */
+    static final long LATENCY_BUDGET = 8000;
+
+    /** The minimum number of armed transfers. */
+    static final int MIN_TRANSFERS = 2;
+
+    /** The maximum number of armed transfers. */
+    static final int MAX_TRANSFERS = 32;
+
+    /** The listener receiving the reports. */
+    private final InterruptListener listener;
+
+    /**
+     * Constructor.
+     *
+     * @param listener
+     *            The listener receiving the reports. Must not be null.
+     */
+    InterruptPoller(final InterruptListener listener)
+    {
+        if (listener == null)
+            throw new IllegalArgumentException("listener must be set");
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the polling interval of an interrupt endpoint.
+     *
+     * @param bInterval
+     *            The bInterval of the endpoint descriptor.
+     * @param speed
+     *            The device speed (One of the LibUsb.SPEED_* constants).
+     * @return The polling interval in microseconds.
+     */
+    static long getInterval(final byte bInterval, final int speed)
+    {
+        final int interval = bInterval & 0xff;
+        if (speed >= LibUsb.SPEED_HIGH)
+        {
+            // Exponent in units of 125 microsecond microframes
+            final int exponent = Math.min(16, Math.max(1, interval)) - 1;
+            return 125L << exponent;
+        }
+
+        // Frames of one millisecond
+        return 1000L * Math.max(1, interval);
+    }
+
+    /**
+     * Returns the number of transfers to keep armed for the specified
+     * polling interval.
+     *
+     * @param interval
+     *            The polling interval in microseconds.
+     * @return The number of transfers.
+     */
+    static int getTransfers(final long interval)
+    {
+        final long transfers = (LATENCY_BUDGET + interval - 1) / interval;
+        return (int) Math.min(MAX_TRANSFERS, Math.max(MIN_TRANSFERS,
+            transfers));
+    }
+
+    @Override
+    public void dataReceived(final UsbPipe pipe, final ByteBuffer data)
+    {
+        this.listener.reportReceived(pipe, data, System.nanoTime());
+    }
+
+    @Override
+    public void errorOccurred(final UsbPipe pipe, final UsbException e)
+    {
+        this.listener.errorOccurred(pipe, e);
+    }
+}
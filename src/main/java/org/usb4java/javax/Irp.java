@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+
+import javax.usb.util.DefaultUsbIrp;
+
+/**
+ * usb4java implementation of UsbIrp which can carry its data in a direct
+ * byte buffer instead of a byte array. The buffer is handed to libusb as is
+ * so the data is not copied. Instances are created with
+ * {@link Pipe#createUsbIrp(ByteBuffer)}.
+ *
+ * The data region starts at the position of the buffer and has the length
+ * of the IRP, which is initially the number of remaining bytes in the
+ * buffer. The position and limit of the buffer are not modified by the
+ * transfer. The byte array of this IRP is empty while a buffer is set.
+ *
+ * @author usb4java Team
+ */
+public class Irp extends DefaultUsbIrp
+{
+    /** The empty byte array used while a buffer is set. */
+    private static final byte[] NO_DATA = new byte[0];
+
+    /** The direct data buffer. Null if IRP uses a byte array. */
+    private ByteBuffer buffer;
+
+    /**
+     * The transfer timeout in milliseconds. 0 for no timeout, negative for
+     * the endpoint or global default.
+     */
+    private long timeout = -1;
+
+    /** The USB 3 bulk stream ID. 0 if IRP doesn't target a stream. */
+    private int streamId;
+
+    /**
+     * Constructs a new IRP with an empty byte array.
+     */
+    public Irp()
+    {
+        super();
+    }
+
+    /**
+     * Constructs a new IRP with the specified direct data buffer.
+     *
+     * @param buffer
+     *            The direct data buffer. Must not be null.
+     */
+    public Irp(final ByteBuffer buffer)
+    {
+        super();
+        setBuffer(buffer);
+    }
+
+    /**
+     * Returns the direct data buffer.
+     *
+     * @return The data buffer or null if the IRP uses a byte array.
+     */
+    public final ByteBuffer getBuffer()
+    {
+        return this.buffer;
+    }
+
+    /**
+     * Sets the direct data buffer. This resets the byte array, the offset
+     * and sets the length to the number of remaining bytes in the buffer.
+     *
+     * @param buffer
+     *            The direct data buffer. Must not be null.
+     */
+    public final void setBuffer(final ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.isDirect())
+            throw new IllegalArgumentException(
+                "buffer must be a direct buffer");
+        super.setData(NO_DATA, 0, 0);
+        this.buffer = buffer;
+        setLength(buffer.remaining());
+    }
+
+    /**
+     * Returns the transfer timeout of this IRP.
+     *
+     * @return The timeout in milliseconds. 0 for no timeout, negative if the
+     *         endpoint or global default is used.
+     */
+    public final long getTimeout()
+    {
+        return this.timeout;
+    }
+
+    /**
+     * Sets the transfer timeout of this IRP. It overrides the timeout
+     * configured for the endpoint and the global timeout. An IRP which is
+     * not completed within the timeout fails with a
+     * {@link UsbTimeoutException}.
+     *
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout, negative to
+     *            use the endpoint or global default.
+     */
+    public final void setTimeout(final long timeout)
+    {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the USB 3 bulk stream ID this IRP targets.
+     *
+     * @return The stream ID. 0 if IRP doesn't target a stream.
+     */
+    public final int getStreamId()
+    {
+        return this.streamId;
+    }
+
+    /**
+     * Sets the USB 3 bulk stream ID this IRP targets. The streams must have
+     * been allocated with {@link Interface#allocStreams(int)}. IRPs of each
+     * stream are processed by a separate queue of the pipe so the streams
+     * run concurrently.
+     *
+     * @param streamId
+     *            The stream ID. 0 to not target a stream.
+     */
+    public final void setStreamId(final int streamId)
+    {
+        if (streamId < 0)
+            throw new IllegalArgumentException(
+                "streamId must not be negative");
+        this.streamId = streamId;
+    }
+
+    /**
+     * Sets the data byte array. This removes the direct data buffer.
+     *
+     * @param data
+     *            The data byte array.
+     * @param offset
+     *            The data offset.
+     * @param length
+     *            The data length.
+     */
+    @Override
+    public void setData(final byte[] data, final int offset, final int length)
+    {
+        super.setData(data, offset, length);
+        this.buffer = null;
+    }
+}
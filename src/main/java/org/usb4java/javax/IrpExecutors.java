@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the executors which run the processors of the IRP queues. The
+ * strategy is selected with the configuration.
+ *
+ * @author usb4java Team
+ */
+final class IrpExecutors
+{
+    /** The available executor strategies. */
+    enum Strategy
+    {
+        /** A new platform thread each time a queue starts processing. */
+        THREAD,
+
+        /** A persistent worker thread per queue. */
+        WORKER,
+
+        /** A bounded pool of platform threads shared by all queues. */
+        POOL,
+
+        /**
+         * A new virtual thread each time a queue starts processing. Falls
+         * back to {@link #THREAD} when virtual threads are not available.
+         */
+        VIRTUAL;
+
+        /**
+         * Parses the specified strategy name.
+         *
+         * @param name
+         *            The case-insensitive strategy name.
+         * @return The strategy.
+         * @throws IllegalArgumentException
+         *             When the strategy is unknown.
+         */
+        static Strategy parse(final String name)
+        {
+            try
+            {
+                return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+            }
+            catch (final IllegalArgumentException e)
+            {
+                throw new IllegalArgumentException(
+                    "Unknown IRP executor: " + name, e);
+            }
+        }
+    }
+
+    /** The name of the processor threads. */
+    private static final String THREAD_NAME = "usb4java IRP Queue Processor";
+
+    /** The time in seconds an idle worker thread is kept alive. */
+    private static final long KEEP_ALIVE = 60;
+
+    /** The thread factory for platform threads. */
+    private static final ThreadFactory PLATFORM_THREADS = new ThreadFactory()
+    {
+        @Override
+        public Thread newThread(final Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            thread.setName(THREAD_NAME);
+            return thread;
+        }
+    };
+
+    /** The used strategy. */
+    private final Strategy strategy;
+
+    /** The number of threads of the shared pool. */
+    private final int poolSize;
+
+    /** The shared executor. Null if the strategy has no shared executor. */
+    private final Executor shared;
+
+    /**
+     * Constructor.
+     *
+     * @param strategy
+     *            The executor strategy. Must not be null.
+     * @param poolSize
+     *            The number of threads of the shared pool. Must be at least 1.
+     */
+    IrpExecutors(final Strategy strategy, final int poolSize)
+    {
+        if (strategy == null)
+            throw new IllegalArgumentException("strategy must be set");
+        if (poolSize < 1)
+            throw new IllegalArgumentException("poolSize must be at least 1");
+        this.poolSize = poolSize;
+        if (strategy == Strategy.POOL)
+        {
+            this.strategy = strategy;
+            this.shared = createPool(poolSize);
+        }
+        else if (strategy == Strategy.VIRTUAL)
+        {
+            final ThreadFactory factory = createVirtualThreadFactory();
+            this.strategy = factory == null ? Strategy.THREAD : strategy;
+            this.shared = createThreadPerTask(
+                factory == null ? PLATFORM_THREADS : factory);
+        }
+        else
+        {
+            this.strategy = strategy;
+            this.shared = strategy == Strategy.THREAD
+                ? createThreadPerTask(PLATFORM_THREADS) : null;
+        }
+    }
+
+    /**
+     * Constructs the executors configured in the specified configuration.
+     *
+     * @param config
+     *            The configuration. Must not be null.
+     */
+    IrpExecutors(final Config config)
+    {
+        this(config.getIrpExecutor(), config.getIrpExecutorThreads());
+    }
+
+    /**
+     * Creates a pool of platform threads. Idle threads are terminated after
+     * a while.
+     *
+     * @param size
+     *            The maximum number of threads.
+     * @return The pool.
+     */
+    private static ThreadPoolExecutor createPool(final int size)
+    {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size,
+            KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+            PLATFORM_THREADS);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates an executor which runs each task in a new thread.
+     *
+     * @param factory
+     *            The factory creating the threads.
+     * @return The executor.
+     */
+    private static Executor createThreadPerTask(final ThreadFactory factory)
+    {
+        return new Executor()
+        {
+            @Override
+            public void execute(final Runnable runnable)
+            {
+                factory.newThread(runnable).start();
+            }
+        };
+    }
+
+    /**
+     * Creates a factory for named virtual threads. Virtual threads are
+     * looked up with reflection so this class still runs on older Java
+     * versions.
+     *
+     * @return The virtual thread factory or null if virtual threads are not
+     *         supported by the Java runtime.
+     */
+    static ThreadFactory createVirtualThreadFactory()
+    {
+        try
+        {
+            final Object builder =
+                Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderClass =
+                Class.forName("java.lang.Thread$Builder");
+            final Method name = builderClass.getMethod("name", String.class);
+            final Method factory = builderClass.getMethod("factory");
+            return (ThreadFactory) factory.invoke(
+                name.invoke(builder, THREAD_NAME));
+        }
+        catch (final Exception e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the used strategy. This is {@link Strategy#THREAD} when
+     * virtual threads were configured but are not available.
+     *
+     * @return The strategy. Never null.
+     */
+    public Strategy getStrategy()
+    {
+        return this.strategy;
+    }
+
+    /**
+     * Returns the executor for a new IRP queue. Depending on the strategy
+     * this is a shared executor or a new executor owned by the queue.
+     *
+     * @return The executor. Never null.
+     */
+    public Executor getQueueExecutor()
+    {
+        if (this.shared != null) return this.shared;
+        return createPool(1);
+    }
+
+    /**
+     * Returns the number of threads of the shared pool.
+     *
+     * @return The pool size.
+     */
+    public int getPoolSize()
+    {
+        return this.poolSize;
+    }
+
+    /**
+     * Shuts down the shared executor. Already queued tasks are still
+     * executed.
+     */
+    public void shutdown()
+    {
+        if (this.shared instanceof ExecutorService)
+            ((ExecutorService) this.shared).shutdown();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.usb.UsbIrp;
+
+/**
+ * Future of a submitted IRP. The future is done when the IRP is complete or
+ * when it was discarded by aborting all submissions. Listeners can be
+ * registered to continue processing without waiting for the IRP.
+ *
+ * A single IRP can't be cancelled. {@link #cancel(boolean)} always returns
+ * false; use {@link javax.usb.UsbPipe#abortAllSubmissions()} instead.
+ *
+ * @author usb4java Team
+ * @param <T>
+ *            The IRP type.
+ */
+public final class IrpFuture<T extends UsbIrp> implements Future<T>
+{
+    /** The IRP. */
+    private final T irp;
+
+    /** The listeners to inform when future is done. Null when done. */
+    private List<IrpFutureListener<T>> listeners =
+        new ArrayList<IrpFutureListener<T>>();
+
+    /** If future is done. */
+    private boolean done;
+
+    /** If IRP was discarded before it was processed. */
+    private boolean cancelled;
+
+    /**
+     * Constructor.
+     *
+     * @param irp
+     *            The IRP. Must not be null.
+     */
+    IrpFuture(final T irp)
+    {
+        if (irp == null) throw new IllegalArgumentException("irp must be set");
+        this.irp = irp;
+    }
+
+    /**
+     * Returns the IRP of this future.
+     *
+     * @return The IRP. Never null.
+     */
+    public T getIrp()
+    {
+        return this.irp;
+    }
+
+    /**
+     * Adds a listener which is informed when the future is done. When the
+     * future is already done then the listener is called right away in the
+     * current thread.
+     *
+     * @param listener
+     *            The listener to add. Must not be null.
+     */
+    public void addListener(final IrpFutureListener<T> listener)
+    {
+        if (listener == null)
+            throw new IllegalArgumentException("listener must be set");
+        synchronized (this)
+        {
+            if (!this.done)
+            {
+                this.listeners.add(listener);
+                return;
+            }
+        }
+        listener.futureDone(this);
+    }
+
+    /**
+     * Marks the future as done and informs the listeners.
+     *
+     * @param cancelled
+     *            True if IRP was discarded before it was processed.
+     */
+    void done(final boolean cancelled)
+    {
+        final List<IrpFutureListener<T>> listeners;
+        synchronized (this)
+        {
+            if (this.done) return;
+            this.done = true;
+            this.cancelled = cancelled;
+            listeners = this.listeners;
+            this.listeners = null;
+            notifyAll();
+        }
+        for (final IrpFutureListener<T> listener: listeners)
+            listener.futureDone(this);
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning)
+    {
+        return false;
+    }
+
+    @Override
+    public synchronized boolean isCancelled()
+    {
+        return this.cancelled;
+    }
+
+    @Override
+    public synchronized boolean isDone()
+    {
+        return this.done;
+    }
+
+    /**
+     * Returns the IRP of a done future.
+     *
+     * @return The IRP.
+     * @throws ExecutionException
+     *             When IRP failed. The cause is the UsbException of the IRP.
+     */
+    private T getResult() throws ExecutionException
+    {
+        if (this.cancelled)
+            throw new CancellationException("IRP was aborted");
+        if (this.irp.isUsbException())
+            throw new ExecutionException(this.irp.getUsbException());
+        return this.irp;
+    }
+
+    @Override
+    public synchronized T get() throws InterruptedException,
+        ExecutionException
+    {
+        while (!this.done)
+            wait();
+        return getResult();
+    }
+
+    @Override
+    public synchronized T get(final long timeout, final TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException
+    {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!this.done)
+        {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) throw new TimeoutException();
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return getResult();
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.util.EventListener;
+
+import javax.usb.UsbIrp;
+
+/**
+ * Listener which is informed when the IRP of an {@link IrpFuture} is done.
+ *
+ * @author usb4java Team
+ * @param <T>
+ *            The IRP type.
+ */
+public interface IrpFutureListener<T extends UsbIrp> extends EventListener
+{
+    /**
+     * Called when the future is done. This is called from the thread which
+     * completed the IRP (The IRP queue processor or the event handling
+     * thread) so the listener must not block. Submitting further IRPs is
+     * fine.
+     *
+     * @param future
+     *            The done future.
+     */
+    void futureDone(IrpFuture<T> future);
+}
@@ -6,9 +6,10 @@
 package org.usb4java.javax;
 
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-import javax.usb.UsbAbortException;
 import javax.usb.UsbConst;
 import javax.usb.UsbControlIrp;
 import javax.usb.UsbEndpoint;
@@ -30,6 +31,20 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
     /** The USB pipe. */
     private final Pipe pipe;
 
+    /** The bulk stream ID. 0 if queue doesn't serve a stream. */
+    private final int streamId;
+
+    /**
+     * The maximum size of a coalesced transfer in bytes. 0 if coalescing is
+     * disabled.
+     */
+    private volatile int coalescingSize;
+
+    /**
+     * The maximum number of milliseconds to wait for more IRPs to coalesce.
+     */
+    private volatile long coalescingDelay;
+
     /**
      * Constructor.
      * 
@@ -37,9 +52,107 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
      *            The USB pipe
      */
     IrpQueue(final Pipe pipe)
+    {
+        this(pipe, 0);
+    }
+
+    /**
+     * Constructs a queue for the IRPs of a USB 3 bulk stream.
+     * 
+     * @param pipe
+     *            The USB pipe
+     * @param streamId
+     *            The bulk stream ID. 0 if queue doesn't serve a stream.
+     */
+    IrpQueue(final Pipe pipe, final int streamId)
     {
         super(pipe.getDevice());
         this.pipe = pipe;
+        this.streamId = streamId;
+    }
+
+    /**
+     * Enables or disables write coalescing. When enabled then small queued
+     * IRPs are merged into a single transfer.
+     * 
+     * @param maxSize
+     *            The maximum size of a coalesced transfer in bytes. Only
+     *            IRPs smaller than this are coalesced. 0 to disable
+     *            coalescing.
+     * @param maxDelay
+     *            The maximum number of milliseconds to wait for more IRPs
+     *            after the first IRP of a coalesced transfer was taken from
+     *            the queue. 0 to only coalesce IRPs which are already queued.
+     */
+    void setCoalescing(final int maxSize, final long maxDelay)
+    {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("maxSize must not be negative");
+        if (maxDelay < 0)
+            throw new IllegalArgumentException(
+                "maxDelay must not be negative");
+        this.coalescingDelay = maxDelay;
+        this.coalescingSize = maxSize;
+    }
+
+    /**
+     * Returns the maximum size of a coalesced transfer.
+     * 
+     * @return The maximum size in bytes. 0 if coalescing is disabled.
+     */
+    int getCoalescingSize()
+    {
+        return this.coalescingSize;
+    }
+
+    /**
+     * Returns the maximum time to wait for more IRPs to coalesce.
+     * 
+     * @return The maximum delay in milliseconds.
+     */
+    long getCoalescingDelay()
+    {
+        return this.coalescingDelay;
+    }
+
+    /**
+     * Checks if the specified IRP can be coalesced with other IRPs.
+     * Zero-length IRPs are never coalesced because they terminate a transfer
+     * on purpose.
+     * 
+     * @param irp
+     *            The IRP to check.
+     * @param maxSize
+     *            The maximum size of a coalesced transfer.
+     * @return True if IRP can be coalesced, false if not.
+     */
+    private static boolean isCoalescable(final UsbIrp irp, final int maxSize)
+    {
+        return !(irp instanceof IsoIrp) && !hasDirectBuffer(irp)
+            && irp.getLength() > 0 && irp.getLength() < maxSize;
+    }
+
+    @Override
+    protected UsbIrp coalesce(final UsbIrp irp)
+    {
+        final int maxSize = this.coalescingSize;
+        if (maxSize == 0 || !isCoalescable(irp, maxSize)) return irp;
+        final long deadline = System.nanoTime()
+            + TimeUnit.MILLISECONDS.toNanos(this.coalescingDelay);
+        final List<UsbIrp> irps = new ArrayList<UsbIrp>();
+        irps.add(irp);
+        int size = irp.getLength();
+        while (size < maxSize && !isAborting())
+        {
+            final UsbIrp next = peekIrp(deadline);
+            if (next == null || !isCoalescable(next, maxSize)
+                || size + next.getLength() > maxSize || !removeIrp(next))
+                break;
+            irps.add(next);
+            size += next.getLength();
+        }
+        if (irps.size() == 1) return irp;
+        return new CoalescedIrp(irps);
     }
 
     @Override
@@ -48,6 +161,226 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
         this.pipe.sendEvent(irp);
     }
 
+    @Override
+    protected AsyncTransfer createTransfer(final UsbIrp irp)
+        throws UsbException
+    {
+        // Isochronous endpoints and bulk streams always use asynchronous
+        // transfers because libusb has no synchronous API for them. Bulk
+        // and interrupt endpoints only use them when enabled or when the
+        // queue processor must not block a pooled thread
+        final UsbEndpoint endpoint = this.pipe.getUsbEndpoint();
+        final byte type = endpoint.getType();
+        final byte transferType;
+        int[] isoPacketLengths = null;
+        if (this.streamId != 0)
+        {
+            transferType = LibUsb.TRANSFER_TYPE_BULK_STREAM;
+        }
+        else if (type == UsbConst.ENDPOINT_TYPE_ISOCHRONOUS)
+        {
+            transferType = LibUsb.TRANSFER_TYPE_ISOCHRONOUS;
+            isoPacketLengths = getIsoPacketLengths(irp);
+        }
+        else if (getConfig().getInFlightTransfers() == 0 && !isPooled())
+            return null;
+        else if (type == UsbConst.ENDPOINT_TYPE_BULK)
+            transferType = LibUsb.TRANSFER_TYPE_BULK;
+        else if (type == UsbConst.ENDPOINT_TYPE_INTERRUPT)
+            transferType = LibUsb.TRANSFER_TYPE_INTERRUPT;
+        else
+            return null;
+
+        final boolean in =
+            endpoint.getDirection() == UsbConst.ENDPOINT_DIRECTION_IN;
+        ByteBuffer buffer = getDirectBuffer(irp);
+        if (buffer == null)
+        {
+            buffer = getDevice().getBufferPool().acquire(irp.getLength());
+            if (!in)
+            {
+                buffer.put(irp.getData(), irp.getOffset(), irp.getLength());
+                buffer.rewind();
+            }
+        }
+
+        // IN transfers wait for data forever unless a timeout is set for
+        // the IRP or the endpoint. They are cancelled when the queue is
+        // aborted.
+        final byte address = getEndpointAddress();
+        final AsyncTransfer transfer = new AsyncTransfer(irp,
+            getDevice().open(), address, transferType, buffer,
+            getTimeout(irp, address, in));
+        if (isoPacketLengths != null)
+            transfer.setIsoPacketLengths(isoPacketLengths);
+        transfer.setStreamId(this.streamId);
+        return transfer;
+    }
+
+    @Override
+    protected int getTransferWindowCapacity()
+    {
+        if (this.pipe.getUsbEndpoint().getType()
+            == UsbConst.ENDPOINT_TYPE_ISOCHRONOUS)
+            return getConfig().getIsoTransfers();
+        return super.getTransferWindowCapacity();
+    }
+
+    /**
+     * Returns the maximum isochronous packet size of the endpoint. For high
+     * speed high-bandwidth endpoints this includes the additional
+     * transactions per microframe.
+     * 
+     * @return The maximum isochronous packet size.
+     */
+    private int getIsoPacketSize()
+    {
+        final int maxPacketSize =
+            getEndpointDescriptor().wMaxPacketSize() & 0xffff;
+        return (maxPacketSize & 0x7ff) * (((maxPacketSize >> 11) & 3) + 1);
+    }
+
+    /**
+     * Returns the isochronous packet lengths for the specified IRP. Packet
+     * lengths of isochronous IRPs are used as specified. Other IRPs are
+     * divided into packets of the maximum isochronous packet size.
+     * 
+     * @param irp
+     *            The IRP.
+     * @return The packet lengths.
+     * @throws UsbException
+     *             When the packets don't fit into the IRP.
+     */
+    private int[] getIsoPacketLengths(final UsbIrp irp) throws UsbException
+    {
+        final int len = irp.getLength();
+        if (irp instanceof IsoIrp)
+        {
+            final int[] lengths = ((IsoIrp) irp).getPacketLengths();
+            long total = 0;
+            for (final int length: lengths) total += length;
+            if (total > len)
+                throw new UsbException(
+                    "Isochronous packets exceed the IRP length");
+            return lengths;
+        }
+        final int packetSize = getIsoPacketSize();
+        if (packetSize == 0)
+            throw new UsbException("Endpoint has no isochronous bandwidth");
+        final int[] lengths = new int[(len + packetSize - 1) / packetSize];
+        for (int i = 0; i < lengths.length; i += 1)
+            lengths[i] = Math.min(packetSize, len - i * packetSize);
+        return lengths;
+    }
+
+    @Override
+    protected void finishTransfer(final UsbIrp irp,
+        final AsyncTransfer transfer) throws UsbException
+    {
+        if (transfer.getType() == LibUsb.TRANSFER_TYPE_ISOCHRONOUS)
+        {
+            finishIsoTransfer(irp, transfer);
+            return;
+        }
+        final boolean in = this.pipe.getUsbEndpoint().getDirection()
+            == UsbConst.ENDPOINT_DIRECTION_IN;
+        final ByteBuffer buffer = transfer.getBuffer();
+        final boolean staged = !hasDirectBuffer(irp);
+        final int result;
+        try
+        {
+            transfer.checkStatus(in ? "Transfer error on IN endpoint"
+                : "Transfer error on OUT endpoint");
+            result = transfer.getActualLength();
+            if (in && staged)
+            {
+                buffer.rewind();
+                buffer.get(irp.getData(), irp.getOffset(), result);
+            }
+        }
+        finally
+        {
+            if (staged) getDevice().getBufferPool().release(buffer);
+        }
+        irp.setActualLength(result);
+        if (result < irp.getLength() && !irp.getAcceptShortPacket())
+        {
+            throw new UsbShortPacketException();
+        }
+    }
+
+    /**
+     * Finishes a completed isochronous transfer. The packet results of
+     * isochronous IRPs are reported per packet and the received data keeps
+     * the packet layout. The received data of other IRPs is compacted and a
+     * failed packet fails the whole IRP.
+     * 
+     * @param irp
+     *            The IRP.
+     * @param transfer
+     *            The completed transfer.
+     * @throws UsbException
+     *             When transfer or a packet of a non-isochronous IRP failed.
+     */
+    private void finishIsoTransfer(final UsbIrp irp,
+        final AsyncTransfer transfer) throws UsbException
+    {
+        final boolean in = this.pipe.getUsbEndpoint().getDirection()
+            == UsbConst.ENDPOINT_DIRECTION_IN;
+        final IsoIrp isoIrp = irp instanceof IsoIrp ? (IsoIrp) irp : null;
+        final ByteBuffer buffer = transfer.getBuffer();
+        final boolean staged = !hasDirectBuffer(irp);
+        int result = 0;
+        try
+        {
+            transfer.checkStatus(in ? "Transfer error on IN endpoint"
+                : "Transfer error on OUT endpoint");
+            int offset = 0;
+            for (int i = 0; i < transfer.getIsoPacketCount(); i += 1)
+            {
+                final int status = transfer.getIsoPacketStatus(i);
+                final int actualLength = transfer.getIsoPacketActualLength(i);
+                if (isoIrp != null)
+                {
+                    isoIrp.setPacketResult(i, status, actualLength);
+                }
+                else if (status != LibUsb.TRANSFER_COMPLETED)
+                {
+                    throw ExceptionUtils.createTransferException(
+                        "Transfer error on isochronous packet " + i, status);
+                }
+                if (in)
+                {
+                    final int target = isoIrp != null ? offset : result;
+                    if (staged)
+                    {
+                        final ByteBuffer packet = buffer.duplicate();
+                        packet.position(offset);
+                        packet.get(irp.getData(), irp.getOffset() + target,
+                            actualLength);
+                    }
+                    else if (target != offset)
+                    {
+                        for (int j = 0; j < actualLength; j += 1)
+                            buffer.put(target + j, buffer.get(offset + j));
+                    }
+                }
+                result += actualLength;
+                offset += transfer.getIsoPacketLength(i);
+            }
+        }
+        finally
+        {
+            if (staged) getDevice().getBufferPool().release(buffer);
+        }
+        irp.setActualLength(result);
+        if (isoIrp == null && result < irp.getLength()
+            && !irp.getAcceptShortPacket())
+        {
+            throw new UsbShortPacketException();
+        }
+    }
+
     @Override
     protected void processIrp(final UsbIrp irp) throws UsbException
     {
@@ -60,11 +393,21 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
             return;
         }
 
+        final ByteBuffer buffer = getDirectBuffer(irp);
+        final long timeout = getTimeout(irp, getEndpointAddress(),
+            direction == UsbConst.ENDPOINT_DIRECTION_IN);
+
+        // Coalesced IRPs are sent in one transfer, splitting them into
+        // segments again would defeat the coalescing
+        final int segmentSize = irp instanceof CoalescedIrp
+            ? Integer.MAX_VALUE : getSegmentSize();
         switch (direction)
         {
             case UsbConst.ENDPOINT_DIRECTION_OUT:
-                irp.setActualLength(write(irp.getData(), irp.getOffset(),
-                    irp.getLength()));
+                irp.setActualLength(buffer != null
+                    ? transfer(buffer, segmentSize, timeout)
+                    : write(irp.getData(), irp.getOffset(), irp.getLength(),
+                        segmentSize, timeout));
                 if (irp.getActualLength() < irp.getLength()
                     && !irp.getAcceptShortPacket())
                 {
@@ -73,8 +416,10 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
                 break;
 
             case UsbConst.ENDPOINT_DIRECTION_IN:
-                irp.setActualLength(read(irp.getData(), irp.getOffset(),
-                    irp.getLength()));
+                irp.setActualLength(buffer != null
+                    ? transfer(buffer, segmentSize, timeout)
+                    : read(irp.getData(), irp.getOffset(), irp.getLength(),
+                        segmentSize, timeout));
                 if (irp.getActualLength() < irp.getLength()
                     && !irp.getAcceptShortPacket())
                 {
@@ -98,6 +443,30 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
         return this.pipe.getUsbEndpoint().getUsbEndpointDescriptor();
     }
 
+    @Override
+    protected byte getEndpointAddress()
+    {
+        return getEndpointDescriptor().bEndpointAddress();
+    }
+
+    /**
+     * Returns the maximum number of bytes to transfer in a single
+     * synchronous transfer. Segments are always a multiple of the maximum
+     * packet size so a short segment reliably indicates a short packet.
+     * 
+     * @return The segment size.
+     */
+    private int getSegmentSize()
+    {
+        final int packetSize =
+            getEndpointDescriptor().wMaxPacketSize() & 0xffff;
+        final int maxTransferSize = getConfig().getMaxTransferSize();
+        if (maxTransferSize == 0) return packetSize;
+        if (maxTransferSize < 0 || packetSize == 0) return Integer.MAX_VALUE;
+        return Math.max(packetSize,
+            maxTransferSize - maxTransferSize % packetSize);
+    }
+
     /**
      * Reads bytes from an interrupt endpoint into the specified data array.
      * 
@@ -107,31 +476,47 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
      *            The offset in the data array to write the read bytes to.
      * @param len
      *            The number of bytes to read.
+     * @param segmentSize
+     *            The maximum number of bytes per transfer.
+     * @param timeout
+     *            The timeout of a single transfer in milliseconds. 0 for no
+     *            timeout.
      * @throws UsbException
      *             When transfer fails.
      * @return The number of read bytes.
      */
-    private int read(final byte[] data, final int offset, final int len)
-        throws UsbException
+    private int read(final byte[] data, final int offset, final int len,
+        final int segmentSize, final long timeout) throws UsbException
     {
         final UsbEndpointDescriptor descriptor = getEndpointDescriptor();
         final byte type = this.pipe.getUsbEndpoint().getType();
         final DeviceHandle handle = getDevice().open();
-        int read = 0;
-        while (read < len)
+        final BufferPool pool = getDevice().getBufferPool();
+        final ByteBuffer buffer = pool.acquire(Math.min(len, segmentSize));
+        try
         {
-            final int size =
-                Math.min(len - read, descriptor.wMaxPacketSize() & 0xffff);
-            final ByteBuffer buffer = ByteBuffer.allocateDirect(size);
-            final int result = transfer(handle, descriptor, type, buffer);
-            buffer.rewind();
-            buffer.get(data, offset + read, result);
-            read += result;
+            int read = 0;
+            while (read < len)
+            {
+                final int size = Math.min(len - read, segmentSize);
+                buffer.clear();
+                buffer.limit(size);
+                final int result =
+                    transfer(handle, descriptor, type, buffer.slice(),
+                        timeout);
+                buffer.rewind();
+                buffer.get(data, offset + read, result);
+                read += result;
 
-            // Short packet detected, aborting
-            if (result < size) break;
+                // Short packet (or zero length packet) detected, aborting
+                if (result < size) break;
+            }
+            return read;
+        }
+        finally
+        {
+            pool.release(buffer);
         }
-        return read;
     }
 
     /**
@@ -143,35 +528,91 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
      *            The offset in the data array to write.
      * @param len
      *            The number of bytes to write.
+     * @param segmentSize
+     *            The maximum number of bytes per transfer.
+     * @param timeout
+     *            The timeout of a single transfer in milliseconds. 0 for no
+     *            timeout.
      * @throws UsbException
      *             When transfer fails.
      * @return The number of written bytes.
      */
-    private int write(final byte[] data, final int offset, final int len)
-        throws UsbException
+    private int write(final byte[] data, final int offset, final int len,
+        final int segmentSize, final long timeout) throws UsbException
     {
         final UsbEndpointDescriptor descriptor = getEndpointDescriptor();
         final byte type = this.pipe.getUsbEndpoint().getType();
         final DeviceHandle handle = getDevice().open();
-        int written = 0;
-        while (written < len)
+        final BufferPool pool = getDevice().getBufferPool();
+        final ByteBuffer buffer = pool.acquire(Math.min(len, segmentSize));
+        try
         {
-            final int size =
-                Math.min(len - written, descriptor.wMaxPacketSize() & 0xffff);
-            final ByteBuffer buffer = ByteBuffer.allocateDirect(size);
-            buffer.put(data, offset + written, size);
-            buffer.rewind();
-            final int result = transfer(handle, descriptor, type, buffer);
-            written += result;
+            int written = 0;
+            while (written < len)
+            {
+                final int size = Math.min(len - written, segmentSize);
+                buffer.clear();
+                buffer.put(data, offset + written, size);
+                buffer.flip();
+                final int result =
+                    transfer(handle, descriptor, type, buffer.slice(),
+                        timeout);
+                written += result;
+
+                // Short packet detected, aborting
+                if (result < size) break;
+            }
+            return written;
+        }
+        finally
+        {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * Transfers the data of a direct buffer from or to the device. The
+     * buffer is passed to libusb without copying the data.
+     * 
+     * @param data
+     *            The direct data buffer. The data starts at index 0 and ends
+     *            at the limit of the buffer.
+     * @param segmentSize
+     *            The maximum number of bytes per transfer.
+     * @param timeout
+     *            The timeout of a single transfer in milliseconds. 0 for no
+     *            timeout.
+     * @throws UsbException
+     *             When transfer fails.
+     * @return The number of transferred bytes.
+     */
+    private int transfer(final ByteBuffer data, final int segmentSize,
+        final long timeout) throws UsbException
+    {
+        final UsbEndpointDescriptor descriptor = getEndpointDescriptor();
+        final byte type = this.pipe.getUsbEndpoint().getType();
+        final DeviceHandle handle = getDevice().open();
+        final int len = data.limit();
+        int transferred = 0;
+        while (transferred < len)
+        {
+            final int size = Math.min(len - transferred, segmentSize);
+            data.limit(transferred + size);
+            data.position(transferred);
+            final int result =
+                transfer(handle, descriptor, type, data.slice(), timeout);
+            transferred += result;
 
             // Short packet detected, aborting
             if (result < size) break;
         }
-        return written;
+        return transferred;
     }
 
     /**
-     * Transfers data from or to the device.
+     * Transfers data from or to the device. The transfer is submitted
+     * asynchronously and awaited so it can be cancelled right away when the
+     * queue is aborted.
      * 
      * @param handle
      *            The device handle.
@@ -180,102 +621,37 @@ final class IrpQueue extends AbstractIrpQueue<UsbIrp>
      * @param type
      *            The endpoint type.
      * @param buffer
-     *            The data buffer.
+     *            The direct data buffer. The data starts at index 0 and ends
+     *            at the limit of the buffer.
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout.
      * @return The number of transferred bytes.
      * @throws UsbException
      *             When data transfer fails.
      */
     private int transfer(final DeviceHandle handle,
         final UsbEndpointDescriptor descriptor, final int type,
-        final ByteBuffer buffer) throws UsbException
+        final ByteBuffer buffer, final long timeout) throws UsbException
     {
-        final byte address = descriptor.bEndpointAddress();
-        final boolean in = this.pipe.getUsbEndpoint().getDirection() ==
-            UsbConst.ENDPOINT_DIRECTION_IN;
+        final byte transferType;
+        final String message;
         if (type == UsbConst.ENDPOINT_TYPE_BULK)
         {
-            return transferBulk(handle, address, in, buffer);
+            transferType = LibUsb.TRANSFER_TYPE_BULK;
+            message = "Transfer error on bulk endpoint";
         }
         else if (type == UsbConst.ENDPOINT_TYPE_INTERRUPT)
         {
-            return transferInterrupt(handle, address, in, buffer);
+            transferType = LibUsb.TRANSFER_TYPE_INTERRUPT;
+            message = "Transfer error on interrupt endpoint";
         }
         else
         {
             throw new UsbException("Unsupported endpoint type: " + type);
         }
-    }
-
-    /**
-     * Transfers bulk data from or to the device.
-     * 
-     * @param handle
-     *            The device handle.
-     * @param address
-     *            The endpoint address.
-     * @param in
-     *            If bulk-in transfer.
-     * @param buffer
-     *            The data buffer.
-     * @return The number of transferred bytes.
-     * @throws UsbException
-     *             When data transfer fails.
-     */
-    private int transferBulk(final DeviceHandle handle, final byte address,
-        final boolean in, final ByteBuffer buffer) throws UsbException
-    {
-        final IntBuffer transferred = IntBuffer.allocate(1);
-        int result;
-        do
-        {
-            result = LibUsb.bulkTransfer(handle, address, buffer,
-                transferred, getConfig().getTimeout());
-            if (result == LibUsb.ERROR_TIMEOUT && isAborting())
-                throw new UsbAbortException();
-        }
-        while (in && result == LibUsb.ERROR_TIMEOUT);
-        if (result < 0)
-        {
-            throw ExceptionUtils.createPlatformException(
-                "Transfer error on bulk endpoint", result);
-        }
-        return transferred.get(0);
-    }
-
-    /**
-     * Transfers interrupt data from or to the device.
-     * 
-     * @param handle
-     *            The device handle.
-     * @param address
-     *            The endpoint address.
-     * @param in
-     *            If interrupt-in transfer.
-     * @param buffer
-     *            The data buffer.
-     * @return The number of transferred bytes.
-     * @throws UsbException
-     *             When data transfer fails.
-     */
-    private int transferInterrupt(final DeviceHandle handle,
-        final byte address, final boolean in, final ByteBuffer buffer)
-        throws UsbException
-    {
-        final IntBuffer transferred = IntBuffer.allocate(1);
-        int result;
-        do
-        {
-            result = LibUsb.interruptTransfer(handle, address, buffer,
-                transferred, getConfig().getTimeout());
-            if (result == LibUsb.ERROR_TIMEOUT && isAborting())
-                throw new UsbAbortException();
-        }
-        while (in && result == LibUsb.ERROR_TIMEOUT);
-        if (result < 0)
-        {
-            throw ExceptionUtils.createPlatformException(
-                "Transfer error on interrupt endpoint", result);
-        }
-        return transferred.get(0);
+        final AsyncTransfer transfer = new AsyncTransfer(null, handle,
+            descriptor.bEndpointAddress(), transferType, buffer, timeout);
+        awaitTransfer(transfer, message);
+        return transfer.getActualLength();
     }
 }
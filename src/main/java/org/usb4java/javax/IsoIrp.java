@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+
+import org.usb4java.LibUsb;
+
+/**
+ * IRP for isochronous endpoints. The data of the IRP is divided into
+ * packets which are transferred in consecutive (micro)frames. The data of
+ * each packet is located behind the data of the previous packet, the
+ * packets are not compacted when fewer bytes are received. The result of
+ * each packet is reported separately and failed or short packets don't fail
+ * the whole IRP. Instances are created with
+ * {@link Pipe#createIsoIrp(int)} or {@link Pipe#createIsoIrp(ByteBuffer, int)}.
+ *
+ * @author usb4java Team
+ */
+public class IsoIrp extends Irp
+{
+    /** The packet lengths. */
+    private final int[] packetLengths;
+
+    /** The packet status codes. */
+    private final int[] packetStatus;
+
+    /** The number of actually transferred bytes per packet. */
+    private final int[] packetActualLengths;
+
+    /**
+     * Constructs a new isochronous IRP with an empty byte array.
+     *
+     * @param numPackets
+     *            The number of packets.
+     */
+    public IsoIrp(final int numPackets)
+    {
+        super();
+        if (numPackets < 0)
+            throw new IllegalArgumentException(
+                "numPackets must not be negative");
+        this.packetLengths = new int[numPackets];
+        this.packetStatus = new int[numPackets];
+        this.packetActualLengths = new int[numPackets];
+    }
+
+    /**
+     * Constructs a new isochronous IRP with the specified direct data
+     * buffer.
+     *
+     * @param buffer
+     *            The direct data buffer. Must not be null.
+     * @param numPackets
+     *            The number of packets.
+     */
+    public IsoIrp(final ByteBuffer buffer, final int numPackets)
+    {
+        this(numPackets);
+        setBuffer(buffer);
+    }
+
+    /**
+     * Returns the number of packets.
+     *
+     * @return The number of packets.
+     */
+    public final int getNumPackets()
+    {
+        return this.packetLengths.length;
+    }
+
+    /**
+     * Sets the length of all packets to the same value.
+     *
+     * @param length
+     *            The packet length.
+     */
+    public final void setPacketLengths(final int length)
+    {
+        for (int i = 0; i < this.packetLengths.length; i += 1)
+            setPacketLength(i, length);
+    }
+
+    /**
+     * Sets the length of the specified packet.
+     *
+     * @param index
+     *            The packet index.
+     * @param length
+     *            The packet length.
+     */
+    public final void setPacketLength(final int index, final int length)
+    {
+        if (length < 0)
+            throw new IllegalArgumentException("length must not be negative");
+        this.packetLengths[index] = length;
+    }
+
+    /**
+     * Returns the length of the specified packet.
+     *
+     * @param index
+     *            The packet index.
+     * @return The packet length.
+     */
+    public final int getPacketLength(final int index)
+    {
+        return this.packetLengths[index];
+    }
+
+    /**
+     * Returns the offset of the specified packet relative to the start of the
+     * IRP data.
+     *
+     * @param index
+     *            The packet index.
+     * @return The packet offset.
+     */
+    public final int getPacketOffset(final int index)
+    {
+        int offset = 0;
+        for (int i = 0; i < index; i += 1)
+            offset += this.packetLengths[i];
+        return offset;
+    }
+
+    /**
+     * Returns the status of the specified packet.
+     *
+     * @param index
+     *            The packet index.
+     * @return The packet status (One of the LibUsb.TRANSFER_* status
+     *         constants). Only valid when IRP is complete.
+     */
+    public final int getPacketStatus(final int index)
+    {
+        return this.packetStatus[index];
+    }
+
+    /**
+     * Checks if the specified packet was transferred successfully.
+     *
+     * @param index
+     *            The packet index.
+     * @return True if packet was transferred successfully. Only valid when
+     *         IRP is complete.
+     */
+    public final boolean isPacketCompleted(final int index)
+    {
+        return this.packetStatus[index] == LibUsb.TRANSFER_COMPLETED;
+    }
+
+    /**
+     * Returns the number of actually transferred bytes of the specified
+     * packet.
+     *
+     * @param index
+     *            The packet index.
+     * @return The number of actually transferred bytes. Only valid when IRP
+     *         is complete.
+     */
+    public final int getPacketActualLength(final int index)
+    {
+        return this.packetActualLengths[index];
+    }
+
+    /**
+     * Returns a copy of the packet lengths.
+     *
+     * @return The packet lengths.
+     */
+    final int[] getPacketLengths()
+    {
+        return this.packetLengths.clone();
+    }
+
+    /**
+     * Sets the result of the specified packet.
+     *
+     * @param index
+     *            The packet index.
+     * @param status
+     *            The packet status.
+     * @param actualLength
+     *            The number of actually transferred bytes.
+     */
+    final void setPacketResult(final int index, final int status,
+        final int actualLength)
+    {
+        this.packetStatus[index] = status;
+        this.packetActualLengths[index] = actualLength;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.usb4java.Context;
+import org.usb4java.IsoPacketDescriptor;
+import org.usb4java.LibUsb;
+import org.usb4java.Transfer;
+import org.usb4java.TransferCallback;
+
+/**
+ * Transfer backend using the asynchronous transfer API of libusb.
+ *
+ * @author usb4java Team
+ */
+final class LibUsbTransferBackend implements TransferBackend, TransferCallback
+{
+    /** The libusb context. */
+    private final Context context;
+
+    /**
+     * Mapping from submitted transfers to the native libusb transfers. A
+     * native transfer is only cancelled while holding the lock on this map
+     * and only freed after it has been removed from the map.
+     */
+    private final Map<AsyncTransfer, Transfer> transfers =
+        new HashMap<AsyncTransfer, Transfer>();
+
+    /**
+     * Constructor.
+     *
+     * @param context
+     *            The libusb context. Must not be null.
+     */
+    LibUsbTransferBackend(final Context context)
+    {
+        if (context == null)
+            throw new IllegalArgumentException("context must be set");
+        this.context = context;
+    }
+
+    @Override
+    public int submit(final AsyncTransfer transfer)
+    {
+        final int isoPackets = transfer.getIsoPacketCount();
+        final Transfer nativeTransfer = LibUsb.allocTransfer(isoPackets);
+        if (nativeTransfer == null) return LibUsb.ERROR_NO_MEM;
+        switch (transfer.getType())
+        {
+            case LibUsb.TRANSFER_TYPE_BULK:
+                LibUsb.fillBulkTransfer(nativeTransfer, transfer.getHandle(),
+                    transfer.getEndpoint(), transfer.getBuffer(), this,
+                    transfer, transfer.getTimeout());
+                break;
+
+            case LibUsb.TRANSFER_TYPE_BULK_STREAM:
+                LibUsb.fillBulkStreamTransfer(nativeTransfer,
+                    transfer.getHandle(), transfer.getEndpoint(),
+                    transfer.getStreamId(), transfer.getBuffer(), this,
+                    transfer, transfer.getTimeout());
+                break;
+
+            case LibUsb.TRANSFER_TYPE_INTERRUPT:
+                LibUsb.fillInterruptTransfer(nativeTransfer,
+                    transfer.getHandle(), transfer.getEndpoint(),
+                    transfer.getBuffer(), this, transfer,
+                    transfer.getTimeout());
+                break;
+
+            case LibUsb.TRANSFER_TYPE_ISOCHRONOUS:
+                LibUsb.fillIsoTransfer(nativeTransfer, transfer.getHandle(),
+                    transfer.getEndpoint(), transfer.getBuffer(), isoPackets,
+                    this, transfer, transfer.getTimeout());
+                final IsoPacketDescriptor[] packets =
+                    nativeTransfer.isoPacketDesc();
+                for (int i = 0; i < isoPackets; i += 1)
+                    packets[i].setLength(transfer.getIsoPacketLength(i));
+                break;
+
+            default:
+                LibUsb.freeTransfer(nativeTransfer);
+                return LibUsb.ERROR_NOT_SUPPORTED;
+        }
+
+        // The buffer may be larger than the data (Pooled buffers)
+        nativeTransfer.setLength(transfer.getBuffer().limit());
+        synchronized (this.transfers)
+        {
+            this.transfers.put(transfer, nativeTransfer);
+        }
+        final int result = LibUsb.submitTransfer(nativeTransfer);
+        if (result < 0)
+        {
+            synchronized (this.transfers)
+            {
+                this.transfers.remove(transfer);
+            }
+            LibUsb.freeTransfer(nativeTransfer);
+        }
+        return result;
+    }
+
+    @Override
+    public int cancel(final AsyncTransfer transfer)
+    {
+        // The lock keeps the event handling thread from freeing the native
+        // transfer while it is cancelled
+        synchronized (this.transfers)
+        {
+            final Transfer nativeTransfer = this.transfers.get(transfer);
+            if (nativeTransfer == null) return LibUsb.ERROR_NOT_FOUND;
+            return LibUsb.cancelTransfer(nativeTransfer);
+        }
+    }
+
+    @Override
+    public int handleEvents(final long timeout)
+    {
+        return LibUsb.handleEventsTimeout(this.context, timeout * 1000);
+    }
+
+    @Override
+    public void interrupt()
+    {
+        LibUsb.interruptEventHandler(this.context);
+    }
+
+    @Override
+    public void processTransfer(final Transfer nativeTransfer)
+    {
+        final AsyncTransfer transfer = (AsyncTransfer) nativeTransfer.userData();
+        final int status = nativeTransfer.status();
+        int actualLength = nativeTransfer.actualLength();
+        final int isoPackets = transfer.getIsoPacketCount();
+        if (isoPackets > 0)
+        {
+            // The actual length of isochronous transfers is only reported
+            // per packet
+            final IsoPacketDescriptor[] packets =
+                nativeTransfer.isoPacketDesc();
+            actualLength = 0;
+            for (int i = 0; i < isoPackets; i += 1)
+            {
+                transfer.setIsoPacketResult(i, packets[i].status(),
+                    packets[i].actualLength());
+                actualLength += packets[i].actualLength();
+            }
+        }
+        synchronized (this.transfers)
+        {
+            this.transfers.remove(transfer);
+        }
+        LibUsb.freeTransfer(nativeTransfer);
+        transfer.complete(status, actualLength);
+    }
+}
@@ -5,11 +5,19 @@
 
 package org.usb4java.javax;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.usb.UsbConfiguration;
-import javax.usb.UsbControlIrp;
+import javax.usb.UsbConst;
 import javax.usb.UsbDisconnectedException;
+import javax.usb.UsbEndpoint;
 import javax.usb.UsbException;
 import javax.usb.UsbInterface;
 import javax.usb.UsbIrp;
@@ -20,8 +28,8 @@ import javax.usb.UsbPipe;
 import javax.usb.event.UsbPipeDataEvent;
 import javax.usb.event.UsbPipeErrorEvent;
 import javax.usb.event.UsbPipeListener;
-import javax.usb.util.DefaultUsbControlIrp;
-import javax.usb.util.DefaultUsbIrp;
+
+import org.usb4java.LibUsb;
 
 
 /**
@@ -29,7 +37,7 @@ import javax.usb.util.DefaultUsbIrp;
  * 
  * @author Klaus Reimer (k@ailis.de)
  */
-final class Pipe implements UsbPipe
+public final class Pipe implements UsbPipe
 {
     /** The endpoint this pipe belongs to. */
     private final Endpoint endpoint;
@@ -43,6 +51,16 @@ final class Pipe implements UsbPipe
     /** The request queue. */
     private final IrpQueue queue;
 
+    /** The request queues of the USB 3 bulk streams. */
+    private final ConcurrentMap<Integer, IrpQueue> streamQueues =
+        new ConcurrentHashMap<Integer, IrpQueue>();
+
+    /** The continuous IN stream. Null if never started. */
+    private volatile PipeStream stream;
+
+    /** The publisher of the current subscription. Null if none. */
+    private volatile PipePublisher publisher;
+
     /**
      * Constructor.
      * 
@@ -62,8 +80,7 @@ final class Pipe implements UsbPipe
      */
     public AbstractDevice getDevice()
     {
-        return this.endpoint.getUsbInterface().getUsbConfiguration()
-            .getUsbDevice();
+        return this.endpoint.getDevice();
     }
 
     /**
@@ -130,11 +147,52 @@ final class Pipe implements UsbPipe
         checkClaimed();
         checkConnected();
         if (!this.opened) throw new UsbException("Pipe is already closed");
-        if (this.queue.isBusy())
+        if (isBusy() || isStreaming())
             throw new UsbException("Pipe is still busy");
         this.opened = false;
     }
 
+    /**
+     * Checks if any request queue of this pipe is busy.
+     * 
+     * @return True if busy, false if not.
+     */
+    private boolean isBusy()
+    {
+        if (this.queue.isBusy()) return true;
+        for (final IrpQueue streamQueue: this.streamQueues.values())
+            if (streamQueue.isBusy()) return true;
+        return false;
+    }
+
+    /**
+     * Returns the request queue for the specified IRP. IRPs targeting a
+     * USB 3 bulk stream are processed by a separate queue per stream.
+     * 
+     * @param irp
+     *            The IRP.
+     * @return The request queue.
+     * @throws UsbException
+     *             When IRP targets a stream but this is not a bulk pipe.
+     */
+    private IrpQueue getQueue(final UsbIrp irp) throws UsbException
+    {
+        final int streamId =
+            irp instanceof Irp ? ((Irp) irp).getStreamId() : 0;
+        if (streamId == 0) return this.queue;
+        IrpQueue streamQueue = this.streamQueues.get(streamId);
+        if (streamQueue == null)
+        {
+            if (this.endpoint.getType() != UsbConst.ENDPOINT_TYPE_BULK)
+                throw new UsbException("Streams require a bulk pipe");
+            streamQueue = new IrpQueue(this, streamId);
+            final IrpQueue existing =
+                this.streamQueues.putIfAbsent(streamId, streamQueue);
+            if (existing != null) streamQueue = existing;
+        }
+        return streamQueue;
+    }
+
     @Override
     public boolean isActive()
     {
@@ -150,7 +208,7 @@ final class Pipe implements UsbPipe
     }
 
     @Override
-    public Endpoint getUsbEndpoint()
+    public UsbEndpoint getUsbEndpoint()
     {
         return this.endpoint;
     }
@@ -158,14 +216,17 @@ final class Pipe implements UsbPipe
     @Override
     public int syncSubmit(final byte[] data) throws UsbException
     {
-        final UsbIrp irp = asyncSubmit(data);
-        irp.waitUntilComplete();
-        if (irp.isUsbException()) throw irp.getUsbException();
+        if (data == null)
+            throw new IllegalArgumentException("data must not be null");
+        final UsbIrp irp = createUsbIrp();
+        irp.setAcceptShortPacket(true);
+        irp.setData(data);
+        syncSubmit(irp);
         return irp.getActualLength();
     }
 
     @Override
-    public UsbIrp asyncSubmit(final byte[] data)
+    public UsbIrp asyncSubmit(final byte[] data) throws UsbException
     {
         if (data == null)
             throw new IllegalArgumentException("data must not be null");
@@ -181,40 +242,244 @@ final class Pipe implements UsbPipe
     {
         if (irp == null)
             throw new IllegalArgumentException("irp must not be null");
-        asyncSubmit(irp);
+        checkActive();
+        checkConnected();
+        checkOpen();
+        if (isStreaming()) throw new UsbException("Pipe is streaming");
+
+        // Processed right away on this thread if the pipe is idle
+        getQueue(irp).addOrProcess(irp);
         irp.waitUntilComplete();
         if (irp.isUsbException()) throw irp.getUsbException();
     }
 
     @Override
-    public void asyncSubmit(final UsbIrp irp)
+    public void asyncSubmit(final UsbIrp irp) throws UsbException
     {
         if (irp == null)
             throw new IllegalArgumentException("irp must not be null");
         checkActive();
         checkConnected();
         checkOpen();
-        this.queue.add(irp);
+        if (isStreaming()) throw new UsbException("Pipe is streaming");
+        getQueue(irp).add(irp);
+    }
+
+    /**
+     * Asynchronously submits the specified IRP. When the queue of this pipe
+     * is bounded and full then this method waits up to the specified
+     * timeout for free space.
+     * 
+     * @param irp
+     *            The IRP to submit. Must not be null.
+     * @param timeout
+     *            The number of milliseconds to wait for free space. 0 to
+     *            fail right away, negative to wait forever.
+     * @throws UsbQueueFullException
+     *             When the queue is still full after the timeout.
+     * @throws UsbException
+     *             When submission fails.
+     */
+    public void asyncSubmit(final UsbIrp irp, final long timeout)
+        throws UsbException
+    {
+        if (irp == null)
+            throw new IllegalArgumentException("irp must not be null");
+        checkActive();
+        checkConnected();
+        checkOpen();
+        if (isStreaming()) throw new UsbException("Pipe is streaming");
+        getQueue(irp).add(irp, timeout);
+    }
+
+    /**
+     * Asynchronously submits the specified IRP and returns a future which is
+     * done when the IRP is complete. Listeners registered on the future are
+     * called from the thread completing the IRP so request/response
+     * exchanges can be chained without blocking a thread.
+     * 
+     * @param irp
+     *            The IRP to submit. Must not be null.
+     * @return The future of the IRP.
+     * @throws UsbException
+     *             When submission fails.
+     */
+    public IrpFuture<UsbIrp> futureSubmit(final UsbIrp irp)
+        throws UsbException
+    {
+        if (irp == null)
+            throw new IllegalArgumentException("irp must not be null");
+        checkActive();
+        checkConnected();
+        checkOpen();
+        if (isStreaming()) throw new UsbException("Pipe is streaming");
+        return getQueue(irp).submit(irp);
+    }
+
+    /**
+     * Returns the maximum number of queued IRPs. This is the capacity of the
+     * request queue for IRPs not targeting a bulk stream.
+     * 
+     * @return The queue capacity. 0 if unbounded.
+     */
+    public int getQueueCapacity()
+    {
+        return this.queue.getCapacity();
+    }
+
+    /**
+     * Sets the maximum number of queued IRPs. Defaults to the configured IRP
+     * queue capacity.
+     * 
+     * @param capacity
+     *            The queue capacity. 0 for unbounded.
+     */
+    public void setQueueCapacity(final int capacity)
+    {
+        this.queue.setCapacity(capacity);
+    }
+
+    /**
+     * Enables write coalescing on this bulk OUT pipe. Small IRPs which are
+     * queued with asynchronous submissions (or with synchronous submissions
+     * while the pipe is busy) are merged into a single transfer until the
+     * transfer reaches the specified size or the specified delay has passed
+     * since the first merged IRP was taken from the queue. Each merged IRP
+     * is still completed individually with the number of its bytes which
+     * were written. The timeout of the first merged IRP applies to the whole
+     * transfer.
+     * 
+     * Coalescing changes the packet boundaries on the bus, so it must only
+     * be used when the device doesn't rely on short packets to separate
+     * messages.
+     * 
+     * @param maxSize
+     *            The maximum size of a coalesced transfer in bytes. Only
+     *            IRPs smaller than this are coalesced. 0 to disable
+     *            coalescing.
+     * @param maxDelay
+     *            The maximum number of milliseconds to wait for more IRPs.
+     *            0 to only coalesce IRPs which are already queued.
+     * @throws UsbException
+     *             When pipe is not a bulk OUT pipe.
+     */
+    public void setCoalescing(final int maxSize, final long maxDelay)
+        throws UsbException
+    {
+        if (this.endpoint.getType() != UsbConst.ENDPOINT_TYPE_BULK
+            || this.endpoint.getDirection() != UsbConst.ENDPOINT_DIRECTION_OUT)
+            throw new UsbException("Coalescing requires a bulk OUT pipe");
+        this.queue.setCoalescing(maxSize, maxDelay);
+    }
+
+    /**
+     * Returns the maximum size of a coalesced transfer.
+     * 
+     * @return The maximum size in bytes. 0 if coalescing is disabled.
+     */
+    public int getCoalescingSize()
+    {
+        return this.queue.getCoalescingSize();
+    }
+
+    /**
+     * Returns the maximum time to wait for more IRPs to coalesce.
+     * 
+     * @return The maximum delay in milliseconds.
+     */
+    public long getCoalescingDelay()
+    {
+        return this.queue.getCoalescingDelay();
+    }
+
+    /**
+     * Returns the number of queued IRPs which are not yet processed. This
+     * includes the IRPs queued for bulk streams.
+     * 
+     * @return The number of queued IRPs.
+     */
+    public int getQueueSize()
+    {
+        int size = this.queue.size();
+        for (final IrpQueue streamQueue: this.streamQueues.values())
+            size += streamQueue.size();
+        return size;
     }
 
     @Override
     public void syncSubmit(final List list) throws UsbException
     {
-        for (final Object item: list)
-        {
-            final UsbIrp irp = (UsbIrp) item;
+        // Submitted one after another so nothing is sent after a failed IRP
+        for (final UsbIrp irp: toIrps(list))
             syncSubmit(irp);
-        }
     }
 
     @Override
-    public void asyncSubmit(final List list)
+    public void asyncSubmit(final List list) throws UsbException
+    {
+        // Queued as a batch. When queuing fails then the IRPs which were not
+        // queued are completed with the exception.
+        final List<UsbIrp> irps = toIrps(list);
+        checkActive();
+        checkConnected();
+        checkOpen();
+        if (isStreaming()) throw new UsbException("Pipe is streaming");
+
+        // Split the batch when it targets multiple bulk streams
+        final Map<IrpQueue, List<UsbIrp>> batches =
+            new LinkedHashMap<IrpQueue, List<UsbIrp>>();
+        for (final UsbIrp irp: irps)
+        {
+            final IrpQueue irpQueue = getQueue(irp);
+            List<UsbIrp> batch = batches.get(irpQueue);
+            if (batch == null)
+            {
+                batch = new ArrayList<UsbIrp>();
+                batches.put(irpQueue, batch);
+            }
+            batch.add(irp);
+        }
+        final Iterator<Map.Entry<IrpQueue, List<UsbIrp>>> entries =
+            batches.entrySet().iterator();
+        while (entries.hasNext())
+        {
+            try
+            {
+                final Map.Entry<IrpQueue, List<UsbIrp>> entry = entries.next();
+                entry.getKey().addAll(entry.getValue());
+            }
+            catch (final UsbException e)
+            {
+                // The following batches are not queued at all
+                while (entries.hasNext())
+                    AbstractIrpQueue.failAll(entries.next().getValue(), e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Validates the specified list of IRPs.
+     * 
+     * @param list
+     *            The list of IRPs.
+     * @return The IRPs.
+     * @throws IllegalArgumentException
+     *             When the list is null or contains invalid elements.
+     */
+    private static List<UsbIrp> toIrps(final List<?> list)
     {
+        if (list == null)
+            throw new IllegalArgumentException("list must not be null");
+        final List<UsbIrp> irps = new ArrayList<UsbIrp>(list.size());
         for (final Object item: list)
         {
-            final UsbIrp irp = (UsbIrp) item;
-            asyncSubmit(irp);
+            if (!(item instanceof UsbIrp))
+                throw new IllegalArgumentException(
+                    "List contains non-UsbIrp objects");
+            irps.add((UsbIrp) item);
         }
+        return irps;
     }
 
     @Override
@@ -223,22 +488,305 @@ final class Pipe implements UsbPipe
         checkActive();
         checkConnected();
         checkOpen();
+        stopStream();
         this.queue.abort();
+        for (final IrpQueue streamQueue: this.streamQueues.values())
+            streamQueue.abort();
+    }
+
+    /**
+     * Aborts the IRPs of all USB 3 bulk streams and discards the stream
+     * queues. Called before the streams are freed so no stream IRP is still
+     * queued or in flight.
+     */
+    void abortStreams()
+    {
+        final Iterator<IrpQueue> queues =
+            this.streamQueues.values().iterator();
+        while (queues.hasNext())
+        {
+            queues.next().abort();
+            queues.remove();
+        }
+    }
+
+    /**
+     * Starts a continuous stream on this IN pipe. The specified number of
+     * transfers is kept submitted all the time and each transfer is
+     * submitted again as soon as its data was passed to the listener. The
+     * stream runs until it is stopped with {@link #stopStream()} or
+     * {@link #abortAllSubmissions()} or until a transfer fails. No IRPs can
+     * be submitted while the pipe is streaming.
+     * 
+     * @param transfers
+     *            The number of transfers kept in flight. Must be at least 1.
+     * @param transferSize
+     *            The size of a single transfer in bytes. Should be a
+     *            multiple of the maximum packet size. Must be at least 1.
+     * @param listener
+     *            The listener receiving the data. Must not be null.
+     * @throws UsbException
+     *             When pipe is not a bulk or interrupt IN pipe, when it is
+     *             busy or when the transfers could not be submitted.
+     */
+    public void startStream(final int transfers, final int transferSize,
+        final PipeStreamListener listener) throws UsbException
+    {
+        synchronized (this)
+        {
+            this.stream = createStream(transfers, transferSize, listener);
+            this.publisher = null;
+            this.stream.start();
+        }
+    }
+
+    /**
+     * Starts polling this interrupt IN pipe. Transfers of one maximum sized
+     * packet are kept armed so the host controller polls the endpoint
+     * according to its interval. The reports are passed to the listener
+     * with a timestamp by the event handling thread which is shared by all
+     * polled endpoints of all devices. Polling runs until it is stopped with
+     * {@link #stopStream()} or {@link #abortAllSubmissions()} or until a
+     * transfer fails. No IRPs can be submitted while the pipe is polled.
+     * 
+     * @param listener
+     *            The listener receiving the reports. Must not be null.
+     * @throws UsbException
+     *             When pipe is not an interrupt IN pipe, when it is busy or
+     *             when the transfers could not be submitted.
+     */
+    public void startPolling(final InterruptListener listener)
+        throws UsbException
+    {
+        final InterruptPoller poller = new InterruptPoller(listener);
+        if (this.endpoint.getType() != UsbConst.ENDPOINT_TYPE_INTERRUPT)
+            throw new UsbException("Polling requires an interrupt pipe");
+        final int maxPacketSize = this.endpoint.getUsbEndpointDescriptor()
+            .wMaxPacketSize() & 0xffff;
+        final int packetSize =
+            (maxPacketSize & 0x7ff) * (((maxPacketSize >> 11) & 3) + 1);
+        final int transfers =
+            InterruptPoller.getTransfers(getPollingInterval());
+        synchronized (this)
+        {
+            this.stream = createStream(transfers, Math.max(1, packetSize),
+                poller);
+            this.publisher = null;
+            this.stream.start();
+        }
+    }
+
+    /**
+     * Returns the polling interval of this interrupt pipe. This depends on
+     * the bInterval of the endpoint and on the device speed.
+     * 
+     * @return The polling interval in microseconds.
+     */
+    public long getPollingInterval()
+    {
+        return InterruptPoller.getInterval(
+            this.endpoint.getUsbEndpointDescriptor().bInterval(),
+            getDevice().getLibUsbSpeed());
+    }
+
+    /**
+     * Subscribes to the data of this IN pipe. Unlike
+     * {@link #startStream(int, int, PipeStreamListener)} transfers are only
+     * submitted for the data requested by the subscriber and submissions
+     * pause when the demand is exhausted. This provides backpressure from
+     * the subscriber down to the bus. The subscription runs until it is
+     * cancelled, until a transfer fails or until the pipe stream is stopped
+     * with {@link #stopStream()} or {@link #abortAllSubmissions()}. No IRPs
+     * can be submitted while the subscription is active.
+     * 
+     * @param transfers
+     *            The maximum number of transfers kept in flight. Must be at
+     *            least 1.
+     * @param transferSize
+     *            The size of a single transfer in bytes. Should be a
+     *            multiple of the maximum packet size. Must be at least 1.
+     * @param subscriber
+     *            The subscriber receiving the data. Must not be null.
+     * @throws UsbException
+     *             When pipe is not a bulk or interrupt IN pipe or when it is
+     *             busy.
+     */
+    public void subscribe(final int transfers, final int transferSize,
+        final PipeSubscriber subscriber) throws UsbException
+    {
+        final PipePublisher publisher = new PipePublisher(subscriber);
+        synchronized (this)
+        {
+            this.stream = createStream(transfers, transferSize, publisher);
+            this.publisher = publisher;
+            publisher.start(this.stream);
+        }
+    }
+
+    /**
+     * Creates a stream on this IN pipe. Must be called while synchronized
+     * on this pipe.
+     * 
+     * @param transfers
+     *            The number of transfers kept in flight.
+     * @param transferSize
+     *            The size of a single transfer in bytes.
+     * @param listener
+     *            The listener receiving the data.
+     * @return The created stream. Not started yet.
+     * @throws UsbException
+     *             When pipe is not a bulk or interrupt IN pipe or when it is
+     *             busy.
+     */
+    private PipeStream createStream(final int transfers,
+        final int transferSize, final PipeStreamListener listener)
+        throws UsbException
+    {
+        checkActive();
+        checkConnected();
+        checkOpen();
+        if (this.endpoint.getDirection() != UsbConst.ENDPOINT_DIRECTION_IN)
+            throw new UsbException("Streaming requires an IN pipe");
+        final byte type = this.endpoint.getType();
+        final byte transferType;
+        if (type == UsbConst.ENDPOINT_TYPE_BULK)
+            transferType = LibUsb.TRANSFER_TYPE_BULK;
+        else if (type == UsbConst.ENDPOINT_TYPE_INTERRUPT)
+            transferType = LibUsb.TRANSFER_TYPE_INTERRUPT;
+        else
+            throw new UsbException(
+                "Streaming requires a bulk or interrupt pipe");
+        if (isStreaming())
+            throw new UsbException("Pipe is already streaming");
+        if (isBusy())
+            throw new UsbException("Pipe is still busy");
+        final AbstractDevice device = getDevice();
+        return new PipeStream(this, device.getTransferBackend(),
+            device.getBufferPool(), device.open(),
+            this.endpoint.getUsbEndpointDescriptor().bEndpointAddress(),
+            transferType, transfers, transferSize, listener);
+    }
+
+    /**
+     * Stops the continuous stream or the subscription. All transfers in
+     * flight are cancelled and an active subscriber is informed about the
+     * completion. Does nothing if pipe is not streaming.
+     */
+    public void stopStream()
+    {
+        final PipeStream stream = this.stream;
+        if (stream != null) stream.stop();
+        final PipePublisher publisher = this.publisher;
+        if (publisher != null) publisher.complete();
+    }
+
+    /**
+     * Checks if the pipe is streaming.
+     * 
+     * @return True if a continuous stream is running or still has
+     *         transfers in flight, false if not.
+     */
+    public boolean isStreaming()
+    {
+        final PipeStream stream = this.stream;
+        return stream != null
+            && (stream.isRunning() || stream.getPending() > 0);
+    }
+
+    /**
+     * Creates a blocking NIO channel for this pipe. The channel is readable
+     * for IN pipes and writable for OUT pipes. Closing the channel does not
+     * close the pipe.
+     * 
+     * @return The channel.
+     */
+    public PipeChannel createChannel()
+    {
+        return new PipeChannel(this);
     }
 
     @Override
-    public UsbIrp createUsbIrp()
+    public Irp createUsbIrp()
     {
-        return new DefaultUsbIrp();
+        return new Irp();
+    }
+
+    /**
+     * Creates an IRP which transfers the data directly from or to the
+     * specified direct buffer without copying it.
+     * 
+     * @param buffer
+     *            The direct data buffer. The data starts at the position of
+     *            the buffer and ends at its limit. Must not be null.
+     * @return The IRP.
+     */
+    public Irp createUsbIrp(final ByteBuffer buffer)
+    {
+        return new Irp(buffer);
+    }
+
+    /**
+     * Creates an IRP for an isochronous pipe. The IRP is initialized with an
+     * empty byte array, so the data and the packet lengths must be set
+     * before submitting it.
+     * 
+     * @param numPackets
+     *            The number of isochronous packets.
+     * @return The isochronous IRP.
+     */
+    public IsoIrp createIsoIrp(final int numPackets)
+    {
+        return new IsoIrp(numPackets);
+    }
+
+    /**
+     * Creates an IRP for an isochronous pipe which transfers the data
+     * directly from or to the specified direct buffer. The packet lengths
+     * must be set before submitting it.
+     * 
+     * @param buffer
+     *            The direct data buffer. The data starts at the position of
+     *            the buffer and ends at its limit. Must not be null.
+     * @param numPackets
+     *            The number of isochronous packets.
+     * @return The isochronous IRP.
+     */
+    public IsoIrp createIsoIrp(final ByteBuffer buffer, final int numPackets)
+    {
+        return new IsoIrp(buffer, numPackets);
     }
 
     @Override
-    public UsbControlIrp createUsbControlIrp(final byte bmRequestType,
+    public ControlIrp createUsbControlIrp(final byte bmRequestType,
         final byte bRequest,
         final short wValue, final short wIndex)
     {
-        return new DefaultUsbControlIrp(bmRequestType, bRequest, wValue,
-            wIndex);
+        return new ControlIrp(bmRequestType, bRequest, wValue, wIndex);
+    }
+
+    /**
+     * Creates a control IRP which transfers the data directly from or to
+     * the specified direct buffer without copying it.
+     * 
+     * @param bmRequestType
+     *            The bmRequestType.
+     * @param bRequest
+     *            The bRequest.
+     * @param wValue
+     *            The wValue.
+     * @param wIndex
+     *            The wIndex.
+     * @param buffer
+     *            The direct data buffer. The data starts at the position of
+     *            the buffer and ends at its limit. Must not be null.
+     * @return The control IRP.
+     */
+    public ControlIrp createUsbControlIrp(final byte bmRequestType,
+        final byte bRequest, final short wValue, final short wIndex,
+        final ByteBuffer buffer)
+    {
+        return new ControlIrp(bmRequestType, bRequest, wValue, wIndex,
+            buffer);
     }
 
     @Override
@@ -259,7 +807,7 @@ final class Pipe implements UsbPipe
      * @param irp
      *            Then request package
      */
-    public void sendEvent(final UsbIrp irp)
+    void sendEvent(final UsbIrp irp)
     {
         if (irp.isUsbException())
         {
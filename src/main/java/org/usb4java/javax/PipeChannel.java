@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ScatteringByteChannel;
+
+import javax.usb.UsbConst;
+import javax.usb.UsbException;
+import javax.usb.UsbIrp;
+import javax.usb.UsbPipe;
+
+/**
+ * Blocking NIO channel for a pipe. IN pipes are readable and OUT pipes are
+ * writable. Each buffer is transferred with a separate IRP. Direct buffers
+ * and heap buffers with an accessible array are transferred without copying
+ * the data. Read-only buffers can only be written. Closing the channel does
+ * not close the pipe.
+ *
+ * @author usb4java Team
+ */
+public final class PipeChannel implements ByteChannel, ScatteringByteChannel,
+    GatheringByteChannel
+{
+    /** The pipe. */
+    private final UsbPipe pipe;
+
+    /** If the pipe is an IN pipe. */
+    private final boolean in;
+
+    /** If channel is open. */
+    private volatile boolean open = true;
+
+    /**
+     * Constructor.
+     *
+     * @param pipe
+     *            The pipe. Must not be null.
+     */
+    PipeChannel(final UsbPipe pipe)
+    {
+        if (pipe == null) throw new IllegalArgumentException("pipe must be set");
+        this.pipe = pipe;
+        this.in = pipe.getUsbEndpoint().getDirection()
+            == UsbConst.ENDPOINT_DIRECTION_IN;
+    }
+
+    /**
+     * Returns the pipe.
+     *
+     * @return The pipe.
+     */
+    public UsbPipe getPipe()
+    {
+        return this.pipe;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return this.open;
+    }
+
+    @Override
+    public void close()
+    {
+        this.open = false;
+    }
+
+    /**
+     * Ensures the channel is open and has the specified direction.
+     *
+     * @param read
+     *            True if channel must be readable, false if it must be
+     *            writable.
+     * @throws ClosedChannelException
+     *             When channel is closed.
+     */
+    private void check(final boolean read) throws ClosedChannelException
+    {
+        if (!this.open) throw new ClosedChannelException();
+        if (read && !this.in) throw new NonReadableChannelException();
+        if (!read && this.in) throw new NonWritableChannelException();
+    }
+
+    /**
+     * Ensures the specified offset and length describe a valid range of the
+     * specified buffer array.
+     *
+     * @param buffers
+     *            The buffers.
+     * @param offset
+     *            The index of the first buffer.
+     * @param length
+     *            The number of buffers.
+     */
+    private static void checkBounds(final ByteBuffer[] buffers,
+        final int offset, final int length)
+    {
+        if (offset < 0 || length < 0 || offset > buffers.length - length)
+            throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Creates an IRP for the remaining bytes of the specified buffer.
+     *
+     * @param buffer
+     *            The buffer.
+     * @return The IRP.
+     */
+    private Irp createIrp(final ByteBuffer buffer)
+    {
+        final Irp irp = new Irp();
+        irp.setAcceptShortPacket(true);
+        if (buffer.isDirect())
+        {
+            irp.setBuffer(buffer);
+        }
+        else if (buffer.hasArray())
+        {
+            irp.setData(buffer.array(),
+                buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        else
+        {
+            // Read-only heap buffer. Only used for writing.
+            final byte[] data = new byte[buffer.remaining()];
+            buffer.duplicate().get(data);
+            irp.setData(data);
+        }
+        return irp;
+    }
+
+    /**
+     * Advances the position of the specified buffer by the number of bytes
+     * transferred by the specified IRP.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param irp
+     *            The completed IRP created for the buffer.
+     * @return The number of transferred bytes.
+     */
+    private static int finish(final ByteBuffer buffer, final UsbIrp irp)
+    {
+        final int transferred = irp.getActualLength();
+        buffer.position(buffer.position() + transferred);
+        return transferred;
+    }
+
+    /**
+     * Converts the specified USB exception into an I/O exception.
+     *
+     * @param e
+     *            The USB exception.
+     * @return The I/O exception.
+     */
+    private static IOException toIOException(final UsbException e)
+    {
+        return new IOException(e.getMessage(), e);
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException
+    {
+        check(true);
+        if (dst.isReadOnly()) throw new ReadOnlyBufferException();
+        if (!dst.hasRemaining()) return 0;
+        final Irp irp = createIrp(dst);
+        try
+        {
+            this.pipe.syncSubmit(irp);
+        }
+        catch (final UsbException e)
+        {
+            throw toIOException(e);
+        }
+        return finish(dst, irp);
+    }
+
+    @Override
+    public long read(final ByteBuffer[] dsts, final int offset,
+        final int length) throws IOException
+    {
+        checkBounds(dsts, offset, length);
+        check(true);
+        for (int i = offset; i < offset + length; i += 1)
+            if (dsts[i].isReadOnly()) throw new ReadOnlyBufferException();
+        long read = 0;
+        for (int i = offset; i < offset + length; i += 1)
+        {
+            final ByteBuffer dst = dsts[i];
+            final int size = dst.remaining();
+            if (size == 0) continue;
+            final int result = read(dst);
+            read += result;
+
+            // Short packet detected, the following buffers stay empty
+            if (result < size) break;
+        }
+        return read;
+    }
+
+    @Override
+    public long read(final ByteBuffer[] dsts) throws IOException
+    {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException
+    {
+        check(false);
+        if (!src.hasRemaining()) return 0;
+        final Irp irp = createIrp(src);
+        try
+        {
+            this.pipe.syncSubmit(irp);
+        }
+        catch (final UsbException e)
+        {
+            throw toIOException(e);
+        }
+        return finish(src, irp);
+    }
+
+    /**
+     * Writes the remaining bytes of the specified buffers. The buffers are
+     * written one after another. Writing stops at the first failed or short
+     * transfer so no data is sent after it and the following buffers are
+     * not consumed.
+     *
+     * @param srcs
+     *            The buffers to write.
+     * @param offset
+     *            The index of the first buffer to write.
+     * @param length
+     *            The number of buffers to write.
+     * @return The number of written bytes.
+     * @throws IOException
+     *             When the first transfer failed.
+     */
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset,
+        final int length) throws IOException
+    {
+        checkBounds(srcs, offset, length);
+        check(false);
+        long written = 0;
+        for (int i = offset; i < offset + length; i += 1)
+        {
+            final ByteBuffer src = srcs[i];
+            final int size = src.remaining();
+            if (size == 0) continue;
+            final int result;
+            try
+            {
+                result = write(src);
+            }
+            catch (final IOException e)
+            {
+                // Report the bytes written so far, the error is reported
+                // again by the next write
+                if (written == 0) throw e;
+                break;
+            }
+            written += result;
+
+            // Short write, the following buffers are not written
+            if (result < size) break;
+        }
+        return written;
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs) throws IOException
+    {
+        return write(srcs, 0, srcs.length);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.usb.UsbException;
+import javax.usb.UsbPipe;
+
+/**
+ * Connects a {@link PipeSubscriber} with a demand-driven {@link PipeStream}.
+ * The demand requested by the subscriber controls how many transfers the
+ * stream keeps in flight.
+ *
+ * @author usb4java Team
+ */
+final class PipePublisher implements PipeStreamListener, PipeSubscription
+{
+    /** The subscriber. */
+    private final PipeSubscriber subscriber;
+
+    /** If the subscription has been terminated. */
+    private final AtomicBoolean terminated = new AtomicBoolean();
+
+    /** The stream providing the data. */
+    private volatile PipeStream stream;
+
+    /**
+     * Constructor.
+     *
+     * @param subscriber
+     *            The subscriber. Must not be null.
+     */
+    PipePublisher(final PipeSubscriber subscriber)
+    {
+        if (subscriber == null)
+            throw new IllegalArgumentException("subscriber must be set");
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * Starts the specified stream without demand and passes the
+     * subscription to the subscriber.
+     *
+     * @param stream
+     *            The stream created with this publisher as listener. Must
+     *            not be null.
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    public void start(final PipeStream stream) throws UsbException
+    {
+        if (stream == null)
+            throw new IllegalArgumentException("stream must be set");
+        this.stream = stream;
+        stream.start(0);
+        this.subscriber.onSubscribe(this);
+    }
+
+    /**
+     * Stops the stream and informs the subscriber about the completion
+     * unless the subscription is already terminated.
+     */
+    public void complete()
+    {
+        this.stream.stop();
+        if (this.terminated.compareAndSet(false, true))
+            this.subscriber.onComplete();
+    }
+
+    /**
+     * Checks if the subscription has been terminated.
+     *
+     * @return True if terminated, false if not.
+     */
+    public boolean isTerminated()
+    {
+        return this.terminated.get();
+    }
+
+    @Override
+    public void request(final long n)
+    {
+        if (n < 1) throw new IllegalArgumentException("n must be at least 1");
+        if (this.terminated.get()) return;
+        this.stream.request(n);
+    }
+
+    @Override
+    public void cancel()
+    {
+        this.terminated.set(true);
+        this.stream.stop();
+    }
+
+    @Override
+    public void dataReceived(final UsbPipe pipe, final ByteBuffer data)
+    {
+        if (!this.terminated.get()) this.subscriber.onNext(data);
+    }
+
+    @Override
+    public void errorOccurred(final UsbPipe pipe, final UsbException e)
+    {
+        if (this.terminated.compareAndSet(false, true))
+            this.subscriber.onError(e);
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.usb.UsbException;
+import javax.usb.UsbPipe;
+
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * Continuous stream of IN transfers. A fixed number of transfers is kept
+ * submitted all the time. Each completed transfer is passed to the listener
+ * and then submitted again with the same buffer, so the host controller
+ * always has transfers queued for the endpoint.
+ *
+ * The stream can also be limited by a demand. Each submitted transfer
+ * consumes one unit of demand and submissions pause when the demand is
+ * exhausted until more is requested with {@link #request(long)}.
+ *
+ * @author usb4java Team
+ */
+final class PipeStream implements TransferListener
+{
+    /** The streaming pipe. */
+    private final UsbPipe pipe;
+
+    /** The transfer backend. */
+    private final TransferBackend backend;
+
+    /** The pool providing the transfer buffers. */
+    private final BufferPool pool;
+
+    /** The device handle. */
+    private final DeviceHandle handle;
+
+    /** The endpoint address. */
+    private final byte endpoint;
+
+    /** The transfer type (One of the LibUsb.TRANSFER_TYPE_* constants). */
+    private final byte type;
+
+    /** The number of transfers kept in flight. */
+    private final int transfers;
+
+    /** The size of a single transfer in bytes. */
+    private final int transferSize;
+
+    /** The stream listener. */
+    private final PipeStreamListener listener;
+
+    /** The transfers in flight. */
+    private final Set<AsyncTransfer> pending = new HashSet<AsyncTransfer>();
+
+    /** If stream is running. */
+    private volatile boolean running;
+
+    /** The thread currently calling the listener. Null if none. */
+    private volatile Thread delivering;
+
+    /**
+     * The number of transfers which may still be submitted. Long.MAX_VALUE
+     * for an unlimited stream. Guarded by pending.
+     */
+    private long demand = Long.MAX_VALUE;
+
+    /**
+     * The number of transfers in flight or about to be submitted. Guarded by
+     * pending.
+     */
+    private int inFlight;
+
+    /**
+     * Constructor.
+     *
+     * @param pipe
+     *            The streaming pipe. Must not be null.
+     * @param backend
+     *            The transfer backend. Must not be null.
+     * @param pool
+     *            The pool providing the transfer buffers. Must not be null.
+     * @param handle
+     *            The device handle. Must not be null.
+     * @param endpoint
+     *            The endpoint address.
+     * @param type
+     *            The transfer type (One of the LibUsb.TRANSFER_TYPE_*
+     *            constants).
+     * @param transfers
+     *            The number of transfers kept in flight. Must be at least 1.
+     * @param transferSize
+     *            The size of a single transfer in bytes. Must be at least 1.
+     * @param listener
+     *            The stream listener. Must not be null.
+     */
+    PipeStream(final UsbPipe pipe, final TransferBackend backend,
+        final BufferPool pool, final DeviceHandle handle, final byte endpoint,
+        final byte type, final int transfers, final int transferSize,
+        final PipeStreamListener listener)
+    {
+        if (pipe == null) throw new IllegalArgumentException("pipe must be set");
+        if (backend == null)
+            throw new IllegalArgumentException("backend must be set");
+        if (pool == null) throw new IllegalArgumentException("pool must be set");
+        if (handle == null)
+            throw new IllegalArgumentException("handle must be set");
+        if (transfers < 1)
+            throw new IllegalArgumentException("transfers must be at least 1");
+        if (transferSize < 1)
+            throw new IllegalArgumentException(
+                "transferSize must be at least 1");
+        if (listener == null)
+            throw new IllegalArgumentException("listener must be set");
+        this.pipe = pipe;
+        this.backend = backend;
+        this.pool = pool;
+        this.handle = handle;
+        this.endpoint = endpoint;
+        this.type = type;
+        this.transfers = transfers;
+        this.transferSize = transferSize;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the stream by submitting all transfers.
+     *
+     * @throws UsbException
+     *             When a transfer could not be submitted. The stream is
+     *             stopped in this case.
+     */
+    public void start() throws UsbException
+    {
+        start(Long.MAX_VALUE);
+    }
+
+    /**
+     * Starts the stream with the specified initial demand. Only as many
+     * transfers as demanded are submitted.
+     *
+     * @param demand
+     *            The initial number of transfers which may be submitted.
+     *            Long.MAX_VALUE for an unlimited stream. Must not be
+     *            negative.
+     * @throws UsbException
+     *             When a transfer could not be submitted. The stream is
+     *             stopped in this case.
+     */
+    public void start(final long demand) throws UsbException
+    {
+        if (demand < 0)
+            throw new IllegalArgumentException("demand must not be negative");
+        synchronized (this.pending)
+        {
+            this.demand = demand;
+        }
+        this.running = true;
+        final int result = fill();
+        if (result < 0)
+        {
+            stop();
+            throw ExceptionUtils.createPlatformException(
+                "Unable to submit stream transfer", result);
+        }
+    }
+
+    /**
+     * Increases the demand by the specified number of transfers and submits
+     * as many transfers as allowed. When a transfer could not be submitted
+     * then the stream is stopped and the listener is informed.
+     *
+     * @param n
+     *            The number of additional transfers. Must be at least 1.
+     */
+    public void request(final long n)
+    {
+        if (n < 1) throw new IllegalArgumentException("n must be at least 1");
+        synchronized (this.pending)
+        {
+            this.demand = this.demand > Long.MAX_VALUE - n
+                ? Long.MAX_VALUE : this.demand + n;
+        }
+        refill();
+    }
+
+    /**
+     * Stops the stream. All transfers in flight are cancelled. When called
+     * from outside the listener then this method waits until all transfers
+     * are finished.
+     */
+    public void stop()
+    {
+        this.running = false;
+        final List<AsyncTransfer> transfers;
+        synchronized (this.pending)
+        {
+            transfers = new ArrayList<AsyncTransfer>(this.pending);
+        }
+        for (final AsyncTransfer transfer: transfers)
+        {
+            if (!transfer.isCompleted()) this.backend.cancel(transfer);
+        }
+
+        // The listener is called from the thread which completes the
+        // transfers so it can't wait for them.
+        if (Thread.currentThread() == this.delivering) return;
+        synchronized (this.pending)
+        {
+            while (!this.pending.isEmpty())
+            {
+                try
+                {
+                    this.pending.wait();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the stream is running.
+     *
+     * @return True if running, false if stopped.
+     */
+    public boolean isRunning()
+    {
+        return this.running;
+    }
+
+    /**
+     * Returns the remaining demand.
+     *
+     * @return The number of transfers which may still be submitted.
+     *         Long.MAX_VALUE for an unlimited stream.
+     */
+    public long getDemand()
+    {
+        synchronized (this.pending)
+        {
+            return this.demand;
+        }
+    }
+
+    /**
+     * Returns the number of transfers in flight.
+     *
+     * @return The number of transfers in flight.
+     */
+    public int getPending()
+    {
+        synchronized (this.pending)
+        {
+            return this.pending.size();
+        }
+    }
+
+    /**
+     * Reserves the submission of a transfer.
+     *
+     * @param replacing
+     *            True if the transfer replaces a completed transfer which
+     *            is still counted as in flight.
+     * @return True if the transfer may be submitted, false if the stream is
+     *         stopped, the demand is exhausted or enough transfers are in
+     *         flight.
+     */
+    private boolean reserve(final boolean replacing)
+    {
+        synchronized (this.pending)
+        {
+            if (!this.running || this.demand == 0) return false;
+            if (!replacing && this.inFlight >= this.transfers) return false;
+            if (this.demand != Long.MAX_VALUE) this.demand--;
+            this.inFlight++;
+            return true;
+        }
+    }
+
+    /**
+     * Submits new transfers until the number of transfers in flight or the
+     * demand is exhausted.
+     *
+     * @return The libusb result code of the last submission.
+     */
+    private int fill()
+    {
+        while (reserve(false))
+        {
+            final ByteBuffer buffer = this.pool.acquire(this.transferSize);
+            final int result = submit(buffer);
+            if (result < 0)
+            {
+                this.pool.release(buffer);
+                return result;
+            }
+        }
+        return LibUsb.SUCCESS;
+    }
+
+    /**
+     * Submits new transfers if possible. Stops the stream and informs the
+     * listener when a transfer could not be submitted.
+     */
+    private void refill()
+    {
+        final int result = fill();
+        if (result < 0)
+        {
+            fail(ExceptionUtils.createPlatformException(
+                "Unable to submit stream transfer", result));
+        }
+    }
+
+    /**
+     * Submits a transfer with the specified buffer. The submission must
+     * have been reserved before.
+     *
+     * @param buffer
+     *            The data buffer.
+     * @return The libusb result code.
+     */
+    private int submit(final ByteBuffer buffer)
+    {
+        final AsyncTransfer transfer = new AsyncTransfer(null, this.handle,
+            this.endpoint, this.type, buffer, 0);
+        transfer.setListener(this);
+        synchronized (this.pending)
+        {
+            this.pending.add(transfer);
+        }
+        final int result = this.backend.submit(transfer);
+        if (result < 0)
+            finished(transfer);
+        else if (!this.running)
+            // The stream was stopped while submitting the transfer
+            this.backend.cancel(transfer);
+        return result;
+    }
+
+    /**
+     * Removes the specified transfer from the transfers in flight.
+     *
+     * @param transfer
+     *            The finished transfer.
+     */
+    private void finished(final AsyncTransfer transfer)
+    {
+        synchronized (this.pending)
+        {
+            if (this.pending.remove(transfer)) this.inFlight--;
+            this.pending.notifyAll();
+        }
+    }
+
+    /**
+     * Stops the stream because of an error and informs the listener.
+     *
+     * @param e
+     *            The exception describing the error.
+     */
+    private void fail(final UsbException e)
+    {
+        stop();
+        this.listener.errorOccurred(this.pipe, e);
+    }
+
+    @Override
+    public void transferCompleted(final AsyncTransfer transfer)
+    {
+        final ByteBuffer buffer = transfer.getBuffer();
+        final int status = transfer.getStatus();
+        boolean resubmitted = false;
+        final Thread previous = this.delivering;
+        this.delivering = Thread.currentThread();
+        try
+        {
+            if (!this.running) return;
+            if (status != LibUsb.TRANSFER_COMPLETED)
+            {
+                fail(ExceptionUtils.createTransferException(
+                    "Transfer error on IN endpoint", status));
+                return;
+            }
+            buffer.position(0);
+            buffer.limit(transfer.getActualLength());
+            this.listener.dataReceived(this.pipe, buffer);
+
+            // Re-arm the transfer unless the listener stopped the stream or
+            // the demand is exhausted
+            if (!reserve(true)) return;
+            buffer.clear();
+            buffer.limit(this.transferSize);
+            final int result = submit(buffer);
+            if (result < 0)
+            {
+                fail(ExceptionUtils.createPlatformException(
+                    "Unable to submit stream transfer", result));
+                return;
+            }
+            resubmitted = true;
+        }
+        finally
+        {
+            if (!resubmitted) this.pool.release(buffer);
+            finished(transfer);
+
+            // Demand requested while this transfer was delivered may not
+            // have been served yet
+            if (this.running) refill();
+            this.delivering = previous;
+        }
+    }
+}
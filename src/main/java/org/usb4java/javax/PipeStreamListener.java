@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+import java.util.EventListener;
+
+import javax.usb.UsbException;
+import javax.usb.UsbPipe;
+
+/**
+ * Listener for the data of a continuous stream started with
+ * {@link Pipe#startStream(int, int, PipeStreamListener)}. The methods are
+ * called from the event handling thread and must return quickly because
+ * the transfer is only submitted again when the listener returns.
+ *
+ * @author usb4java Team
+ */
+public interface PipeStreamListener extends EventListener
+{
+    /**
+     * Called when a transfer of the stream has received data.
+     *
+     * @param pipe
+     *            The streaming pipe.
+     * @param data
+     *            The received data from the position to the limit of the
+     *            buffer. The buffer is reused for the next transfer so it is
+     *            only valid until this method returns.
+     */
+    void dataReceived(UsbPipe pipe, ByteBuffer data);
+
+    /**
+     * Called when a transfer of the stream failed. The stream is stopped
+     * afterwards.
+     *
+     * @param pipe
+     *            The streaming pipe.
+     * @param e
+     *            The exception describing the failure.
+     */
+    void errorOccurred(UsbPipe pipe, UsbException e);
+}
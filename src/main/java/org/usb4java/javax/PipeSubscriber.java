@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.nio.ByteBuffer;
+
+import javax.usb.UsbException;
+
+/**
+ * Subscriber for the data of an IN pipe subscribed with
+ * {@link Pipe#subscribe(int, int, PipeSubscriber)}. Modeled after the
+ * subscriber of the reactive streams specification so it can easily be
+ * bridged to java.util.concurrent.Flow or other reactive libraries. Except
+ * for {@link #onSubscribe(PipeSubscription)} the methods are called from the
+ * event handling thread and must return quickly.
+ *
+ * @author usb4java Team
+ */
+public interface PipeSubscriber
+{
+    /**
+     * Called once when the subscription has been started. No data is
+     * received until it is requested from the subscription.
+     *
+     * @param subscription
+     *            The subscription.
+     */
+    void onSubscribe(PipeSubscription subscription);
+
+    /**
+     * Called when a requested transfer has received data.
+     *
+     * @param data
+     *            The received data from the position to the limit of the
+     *            buffer. The buffer is reused for the next transfer so it is
+     *            only valid until this method returns.
+     */
+    void onNext(ByteBuffer data);
+
+    /**
+     * Called when a transfer failed. The subscription is terminated and no
+     * further signals are sent.
+     *
+     * @param e
+     *            The exception describing the failure.
+     */
+    void onError(UsbException e);
+
+    /**
+     * Called when the subscription has been terminated because the stream
+     * of the pipe has been stopped. No further signals are sent.
+     */
+    void onComplete();
+}
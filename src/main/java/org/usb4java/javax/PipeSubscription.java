@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+/**
+ * Subscription of a {@link PipeSubscriber} to the data of an IN pipe. Modeled
+ * after the subscription of the reactive streams specification.
+ *
+ * @author usb4java Team
+ */
+public interface PipeSubscription
+{
+    /**
+     * Requests the specified number of additional data buffers. Each
+     * requested buffer is received by a separate transfer and up to the
+     * configured number of transfers is kept in flight until the demand is
+     * exhausted. No transfers are submitted while there is no demand.
+     *
+     * @param n
+     *            The number of additional data buffers. Must be at least 1.
+     */
+    void request(long n);
+
+    /**
+     * Cancels the subscription. All transfers in flight are cancelled and
+     * the subscriber receives no further signals.
+     */
+    void cancel();
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+/**
+ * Backend which executes asynchronous transfers. All methods return libusb
+ * error codes instead of throwing exceptions so the backend can be easily
+ * replaced by a simulated one.
+ *
+ * @author usb4java Team
+ */
+interface TransferBackend
+{
+    /**
+     * Submits the specified transfer. When this method returns successfully
+     * then {@link AsyncTransfer#complete(int, int)} is guaranteed to be
+     * called later from within {@link #handleEvents(long)}.
+     *
+     * @param transfer
+     *            The transfer to submit.
+     * @return 0 on success or a libusb error code.
+     */
+    int submit(AsyncTransfer transfer);
+
+    /**
+     * Cancels the specified transfer. The transfer is completed with status
+     * TRANSFER_CANCELLED later. Cancelling an already completed transfer
+     * does nothing.
+     *
+     * @param transfer
+     *            The transfer to cancel.
+     * @return 0 on success or a libusb error code.
+     */
+    int cancel(AsyncTransfer transfer);
+
+    /**
+     * Handles pending events and completes finished transfers.
+     *
+     * @param timeout
+     *            The maximum time in milliseconds to wait for events.
+     * @return 0 on success or a libusb error code.
+     */
+    int handleEvents(long timeout);
+
+    /**
+     * Interrupts a running {@link #handleEvents(long)} call so it returns
+     * as soon as possible.
+     */
+    void interrupt();
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.util.EventListener;
+
+/**
+ * Listener for completed asynchronous transfers.
+ *
+ * @author usb4java Team
+ */
+interface TransferListener extends EventListener
+{
+    /**
+     * Called when a transfer has been completed, has failed or has been
+     * cancelled.
+     *
+     * @param transfer
+     *            The completed transfer.
+     */
+    void transferCompleted(AsyncTransfer transfer);
+}
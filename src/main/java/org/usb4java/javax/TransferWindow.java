@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.usb.UsbException;
+
+/**
+ * Keeps a limited number of asynchronous transfers in flight and reports
+ * completed transfers in the order they were submitted, regardless of the
+ * order in which the backend completes them. Completions are driven by the
+ * {@link EventLoop} of the device manager.
+ *
+ * @author usb4java Team
+ */
+final class TransferWindow implements TransferListener
+{
+    /** The transfer backend. */
+    private final TransferBackend backend;
+
+    /** The maximum number of transfers in flight. */
+    private final int capacity;
+
+    /** The listener informed about completed transfers in order. */
+    private final TransferListener listener;
+
+    /** The transfers in flight in submission order. */
+    private final LinkedList<AsyncTransfer> transfers =
+        new LinkedList<AsyncTransfer>();
+
+    /** If a thread is currently delivering completed transfers. */
+    private boolean delivering;
+
+    /**
+     * The transfer currently reported to the listener. Null if none. It no
+     * longer occupies a slot but still counts as in flight until the
+     * listener returns.
+     */
+    private AsyncTransfer reported;
+
+    /** The thread reporting the current transfer. Null if none. */
+    private Thread reporter;
+
+    /**
+     * Constructor.
+     *
+     * @param backend
+     *            The transfer backend. Must not be null.
+     * @param capacity
+     *            The maximum number of transfers in flight. Must be at least
+     *            1.
+     * @param listener
+     *            The listener to inform about completed transfers. Must not
+     *            be null.
+     */
+    TransferWindow(final TransferBackend backend, final int capacity,
+        final TransferListener listener)
+    {
+        if (backend == null)
+            throw new IllegalArgumentException("backend must be set");
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        if (listener == null)
+            throw new IllegalArgumentException("listener must be set");
+        this.backend = backend;
+        this.capacity = capacity;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the maximum number of transfers in flight.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of transfers which are submitted and whose
+     * listener call has not yet returned.
+     *
+     * @return The number of transfers in flight.
+     */
+    public int size()
+    {
+        synchronized (this.transfers)
+        {
+            return this.transfers.size() + (this.reported != null ? 1 : 0);
+        }
+    }
+
+    /**
+     * Checks if the window is full. The transfer which is currently reported
+     * to the listener no longer occupies a slot.
+     *
+     * @return True if no more transfers can be submitted right now.
+     */
+    public boolean isFull()
+    {
+        synchronized (this.transfers)
+        {
+            return this.transfers.size() >= this.capacity;
+        }
+    }
+
+    /**
+     * Checks if no transfers are in flight. The transfer which is reported
+     * by the calling thread itself is not counted so a listener doesn't
+     * wait for its own call.
+     *
+     * @return True if no transfers are in flight, false if there are.
+     */
+    public boolean isIdle()
+    {
+        synchronized (this.transfers)
+        {
+            return !isInFlight();
+        }
+    }
+
+    /**
+     * Checks if transfers are in flight. The transfer which is reported by
+     * the calling thread itself is not counted. Must be called while holding
+     * the lock on the transfers.
+     *
+     * @return True if transfers are in flight, false if not.
+     */
+    private boolean isInFlight()
+    {
+        return !this.transfers.isEmpty() || (this.reported != null
+            && this.reporter != Thread.currentThread());
+    }
+
+    /**
+     * Submits the specified transfer. If the window is full then this
+     * method waits until a slot is free.
+     *
+     * @param transfer
+     *            The transfer to submit.
+     * @throws UsbException
+     *             When transfer could not be submitted.
+     */
+    public void submit(final AsyncTransfer transfer) throws UsbException
+    {
+        transfer.setListener(this);
+        synchronized (this.transfers)
+        {
+            while (this.transfers.size() >= this.capacity)
+            {
+                try
+                {
+                    this.transfers.wait();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new UsbException(
+                        "Interrupted while waiting for a free transfer slot");
+                }
+            }
+            this.transfers.add(transfer);
+        }
+        final int result = this.backend.submit(transfer);
+        if (result < 0)
+        {
+            synchronized (this.transfers)
+            {
+                this.transfers.remove(transfer);
+                this.transfers.notifyAll();
+            }
+            throw ExceptionUtils.createPlatformException(
+                "Unable to submit transfer", result);
+        }
+    }
+
+    /**
+     * Waits until all transfers in flight are reported to the listener and
+     * the listener has returned.
+     */
+    public void awaitEmpty()
+    {
+        synchronized (this.transfers)
+        {
+            while (isInFlight())
+            {
+                try
+                {
+                    this.transfers.wait();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels all transfers in flight. The transfers are reported to the
+     * listener as soon as the backend has completed the cancellation.
+     */
+    public void cancelAll()
+    {
+        final List<AsyncTransfer> transfers;
+        synchronized (this.transfers)
+        {
+            transfers = new ArrayList<AsyncTransfer>(this.transfers);
+        }
+        for (final AsyncTransfer transfer: transfers)
+        {
+            if (!transfer.isCompleted()) this.backend.cancel(transfer);
+        }
+    }
+
+    @Override
+    public void transferCompleted(final AsyncTransfer transfer)
+    {
+        // Only one thread delivers completed transfers at a time so the
+        // listener sees them in submission order.
+        synchronized (this.transfers)
+        {
+            if (this.delivering) return;
+            this.delivering = true;
+        }
+        while (true)
+        {
+            final AsyncTransfer next;
+            synchronized (this.transfers)
+            {
+                next = this.transfers.peek();
+                if (next == null || !next.isCompleted())
+                {
+                    this.delivering = false;
+                    return;
+                }
+                // The slot is freed right away but the transfer is still
+                // in flight until the listener has returned
+                this.transfers.remove();
+                this.reported = next;
+                this.reporter = Thread.currentThread();
+                this.transfers.notifyAll();
+            }
+            try
+            {
+                this.listener.transferCompleted(next);
+            }
+            catch (final RuntimeException e)
+            {
+                synchronized (this.transfers)
+                {
+                    this.delivering = false;
+                    this.reported = null;
+                    this.reporter = null;
+                    this.transfers.notifyAll();
+                }
+                throw e;
+            }
+            synchronized (this.transfers)
+            {
+                this.reported = null;
+                this.reporter = null;
+                this.transfers.notifyAll();
+            }
+        }
+    }
+}
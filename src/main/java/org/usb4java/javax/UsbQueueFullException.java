@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import javax.usb.UsbException;
+
+/**
+ * Thrown when an IRP is submitted to a bounded IRP queue which is full and
+ * doesn't get free space within the submit timeout.
+ * 
+ * @author usb4java Team
+ */
+public final class UsbQueueFullException extends UsbException
+{
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            The capacity of the full queue.
+     */
+    UsbQueueFullException(final int capacity)
+    {
+        super("IRP queue is full (capacity " + capacity + ")");
+    }
+}
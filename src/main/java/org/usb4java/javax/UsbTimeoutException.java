@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import javax.usb.UsbPlatformException;
+
+import org.usb4java.LibUsb;
+
+/**
+ * Thrown when a transfer is not completed within its timeout. It is a
+ * platform exception with the error code {@link LibUsb#ERROR_TIMEOUT} so it
+ * is still handled by code catching platform exceptions.
+ * 
+ * @author usb4java Team
+ */
+public final class UsbTimeoutException extends UsbPlatformException
+{
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     * 
+     * @param message
+     *            The error message.
+     */
+    UsbTimeoutException(final String message)
+    {
+        super(message, LibUsb.ERROR_TIMEOUT);
+    }
+}
@@ -7,7 +7,6 @@ package org.usb4java.javax.descriptors;
 
 import javax.usb.UsbDeviceDescriptor;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.usb4java.DescriptorUtils;
 import org.usb4java.DeviceDescriptor;
@@ -237,22 +236,22 @@ public final class SimpleUsbDeviceDescriptor extends SimpleUsbDescriptor
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         final SimpleUsbDeviceDescriptor other = (SimpleUsbDeviceDescriptor) obj;
-        return new EqualsBuilder()
-            .append(bLength(), other.bLength())
-            .append(bDescriptorType(), other.bDescriptorType())
-            .append(this.bDeviceClass, other.bDeviceClass)
-            .append(this.bDeviceProtocol, other.bDeviceProtocol)
-            .append(this.bDeviceSubClass, other.bDeviceSubClass)
-            .append(this.bMaxPacketSize0, other.bMaxPacketSize0)
-            .append(this.bNumConfigurations, other.bNumConfigurations)
-            .append(this.bcdDevice, other.bcdDevice)
-            .append(this.bcdUSB, other.bcdUSB)
-            .append(this.iManufacturer, other.iManufacturer)
-            .append(this.iProduct, other.iProduct)
-            .append(this.iSerialNumber, other.iSerialNumber)
-            .append(this.idProduct, other.idProduct)
-            .append(this.idVendor, other.idVendor)
-            .isEquals();
+
+        // Compared field by field because this is called during every scan
+        return this.idVendor == other.idVendor
+            && this.idProduct == other.idProduct
+            && this.bcdDevice == other.bcdDevice
+            && this.iSerialNumber == other.iSerialNumber
+            && bLength() == other.bLength()
+            && bDescriptorType() == other.bDescriptorType()
+            && this.bDeviceClass == other.bDeviceClass
+            && this.bDeviceProtocol == other.bDeviceProtocol
+            && this.bDeviceSubClass == other.bDeviceSubClass
+            && this.bMaxPacketSize0 == other.bMaxPacketSize0
+            && this.bNumConfigurations == other.bNumConfigurations
+            && this.bcdUSB == other.bcdUSB
+            && this.iManufacturer == other.iManufacturer
+            && this.iProduct == other.iProduct;
     }
 
     @Override
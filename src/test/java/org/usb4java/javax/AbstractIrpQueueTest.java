@@ -0,0 +1,726 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.usb.UsbAbortException;
+import javax.usb.UsbException;
+import javax.usb.UsbIrp;
+import javax.usb.util.DefaultUsbIrp;
+
+import org.junit.Test;
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * Tests the {@link AbstractIrpQueue} class.
+ *
+ * @author usb4java Team
+ */
+public class AbstractIrpQueueTest
+{
+    /** The simulated backend. */
+    private final FakeTransferBackend backend = new FakeTransferBackend();
+
+    /** The simulated device. */
+    private AbstractDevice device;
+
+    /** The IRPs finished by the test queues in finishing order. */
+    private final List<UsbIrp> finished =
+        Collections.synchronizedList(new ArrayList<UsbIrp>());
+
+    /** The threads which processed the IRPs in processing order. */
+    private final List<Thread> processors =
+        Collections.synchronizedList(new ArrayList<Thread>());
+
+    /**
+     * Test queue which transfers its IRPs like an interrupt IN pipe.
+     */
+    private final class TestQueue extends AbstractIrpQueue<UsbIrp>
+    {
+        /**
+         * Constructor.
+         */
+        TestQueue()
+        {
+            super(AbstractIrpQueueTest.this.device);
+        }
+
+        /**
+         * Creates a transfer for the specified IRP.
+         *
+         * @param irp
+         *            The IRP.
+         * @return The transfer.
+         */
+        private AsyncTransfer newTransfer(final UsbIrp irp)
+        {
+            return new AsyncTransfer(irp, new DeviceHandle(), (byte) 0x81,
+                LibUsb.TRANSFER_TYPE_INTERRUPT,
+                ByteBuffer.allocateDirect(irp.getLength()),
+                getTimeout(irp, (byte) 0x81, true));
+        }
+
+        @Override
+        protected AsyncTransfer createTransfer(final UsbIrp irp)
+        {
+            AbstractIrpQueueTest.this.processors.add(Thread.currentThread());
+            if (getConfig().getInFlightTransfers() == 0 && !isPooled())
+                return null;
+            return newTransfer(irp);
+        }
+
+        @Override
+        protected void processIrp(final UsbIrp irp) throws UsbException
+        {
+            final AsyncTransfer transfer = newTransfer(irp);
+            awaitTransfer(transfer, "Transfer error");
+            irp.setActualLength(transfer.getActualLength());
+        }
+
+        @Override
+        protected void finishIrp(final UsbIrp irp)
+        {
+            AbstractIrpQueueTest.this.finished.add(irp);
+        }
+    }
+
+    /**
+     * Simulates the device with the specified configuration.
+     *
+     * @param properties
+     *            The configuration properties.
+     */
+    private void setUp(final Properties properties)
+    {
+        this.device = new FakeDevice(properties, this.backend);
+    }
+
+    /**
+     * Simulates the device with a shared pool of the specified size.
+     *
+     * @param threads
+     *            The number of pool threads.
+     */
+    private void setUpPool(final int threads)
+    {
+        final Properties properties = new Properties();
+        properties.setProperty("org.usb4java.javax.irpExecutor", "pool");
+        properties.setProperty("org.usb4java.javax.irpExecutorThreads",
+            String.valueOf(threads));
+        setUp(properties);
+    }
+
+    /**
+     * Simulates the device with synchronous transfers.
+     */
+    private void setUpSync()
+    {
+        setUp(new Properties());
+    }
+
+    /**
+     * Simulates the device with asynchronous transfers.
+     *
+     * @param inFlight
+     *            The number of transfers in flight.
+     */
+    private void setUpAsync(final int inFlight)
+    {
+        final Properties properties = new Properties();
+        properties.setProperty("org.usb4java.javax.inFlightTransfers",
+            String.valueOf(inFlight));
+        setUp(properties);
+    }
+
+    /**
+     * Queues the specified IRP in a new thread which waits forever for free
+     * space in the queue.
+     *
+     * @param queue
+     *            The queue.
+     * @param irp
+     *            The IRP to queue.
+     * @param error
+     *            Receives the exception thrown by the queue.
+     * @return The started thread.
+     */
+    private static Thread addLater(final TestQueue queue, final UsbIrp irp,
+        final AtomicReference<Exception> error)
+    {
+        final Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    queue.add(irp, -1);
+                }
+                catch (final Exception e)
+                {
+                    error.set(e);
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Waits until the specified thread is blocked.
+     *
+     * @param thread
+     *            The thread to wait for.
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    private static void awaitBlocked(final Thread thread)
+        throws InterruptedException
+    {
+        while (thread.getState() != Thread.State.WAITING)
+            Thread.sleep(1);
+    }
+
+    /**
+     * Creates a test IRP.
+     *
+     * @return The test IRP.
+     */
+    private static UsbIrp createIrp()
+    {
+        return new DefaultUsbIrp(new byte[8]);
+    }
+
+    /**
+     * Waits until the backend has the specified number of pending transfers.
+     *
+     * @param count
+     *            The number of pending transfers to wait for.
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    private void awaitPending(final int count) throws InterruptedException
+    {
+        while (this.backend.getPending().size() < count)
+            Thread.sleep(1);
+    }
+
+    /**
+     * Completes the pending transfer of the specified IRP.
+     *
+     * @param irp
+     *            The IRP.
+     */
+    private void complete(final UsbIrp irp)
+    {
+        final List<AsyncTransfer> pending = this.backend.getPending();
+        for (int i = 0; i < pending.size(); i += 1)
+        {
+            if (pending.get(i).getIrp() == irp)
+            {
+                this.backend.complete(i, LibUsb.TRANSFER_COMPLETED,
+                    irp.getLength());
+                return;
+            }
+        }
+        throw new AssertionError("No pending transfer for IRP");
+    }
+
+    /**
+     * Tests that IN transfers waiting for data don't occupy the threads of
+     * the shared pool so other queues are still processed.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testPooledQueuesDontHoldThreads() throws Exception
+    {
+        setUpPool(2);
+        for (int i = 0; i < 4; i += 1)
+            new TestQueue().add(createIrp());
+        awaitPending(4);
+
+        final UsbIrp irp = createIrp();
+        new TestQueue().add(irp);
+        awaitPending(5);
+        complete(irp);
+        irp.waitUntilComplete(5000);
+        assertTrue(irp.isComplete());
+        assertEquals(8, irp.getActualLength());
+        assertEquals(1, this.finished.size());
+    }
+
+    /**
+     * Tests that a pooled queue gives up its thread while its transfer
+     * window is full and continues when a transfer is completed.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testPooledQueueYieldsWhenWindowIsFull() throws Exception
+    {
+        setUpPool(1);
+        final TestQueue queue = new TestQueue();
+        final UsbIrp first = createIrp();
+        final UsbIrp second = createIrp();
+        queue.add(first);
+        queue.add(second);
+        awaitPending(1);
+
+        // The single pool thread is still available for other queues
+        final UsbIrp other = createIrp();
+        new TestQueue().add(other);
+        awaitPending(2);
+        assertFalse(second.isComplete());
+
+        complete(first);
+        awaitPending(2);
+        complete(second);
+        complete(other);
+        second.waitUntilComplete(5000);
+        other.waitUntilComplete(5000);
+        assertEquals(3, this.finished.size());
+        assertTrue(this.finished.indexOf(first)
+            < this.finished.indexOf(second));
+
+        // The restarted processor may still be about to finish
+        while (queue.isBusy())
+            Thread.sleep(1);
+    }
+
+    /**
+     * Tests that the queue rejects IRPs right away when it is full and no
+     * timeout is given.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testRejectWhenFull() throws Exception
+    {
+        setUpSync();
+        final TestQueue queue = new TestQueue();
+        queue.setCapacity(1);
+        queue.add(createIrp());
+        awaitPending(1);
+        queue.add(createIrp(), 0);
+        assertEquals(1, queue.size());
+        try
+        {
+            queue.add(createIrp(), 0);
+            fail("Queue is full");
+        }
+        catch (final UsbQueueFullException e)
+        {
+            assertEquals(1, queue.size());
+        }
+        queue.abort();
+    }
+
+    /**
+     * Tests that the queue waits for the timeout before rejecting an IRP.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testBlockingTimeout() throws Exception
+    {
+        setUpSync();
+        final TestQueue queue = new TestQueue();
+        queue.setCapacity(1);
+        queue.add(createIrp());
+        awaitPending(1);
+        queue.add(createIrp());
+        final long start = System.currentTimeMillis();
+        try
+        {
+            queue.add(createIrp(), 50);
+            fail("Queue is full");
+        }
+        catch (final UsbQueueFullException e)
+        {
+            assertTrue(System.currentTimeMillis() - start >= 50);
+        }
+        queue.abort();
+    }
+
+    /**
+     * Tests that the configured capacity is used by add.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testConfiguredCapacity() throws Exception
+    {
+        final Properties properties = new Properties();
+        properties.setProperty("org.usb4java.javax.irpQueueCapacity", "1");
+        properties.setProperty("org.usb4java.javax.irpQueueTimeout", "0");
+        setUp(properties);
+        final TestQueue queue = new TestQueue();
+        assertEquals(1, queue.getCapacity());
+        queue.add(createIrp());
+        awaitPending(1);
+        queue.add(createIrp());
+        try
+        {
+            queue.add(createIrp());
+            fail("Queue is full");
+        }
+        catch (final UsbQueueFullException e)
+        {
+            // Expected
+        }
+        queue.abort();
+    }
+
+    /**
+     * Tests that a slot is released when the processor takes the next IRP
+     * after completing the previous one.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testSlotReleasedOnComplete() throws Exception
+    {
+        setUpSync();
+        final TestQueue queue = new TestQueue();
+        queue.setCapacity(1);
+        final UsbIrp first = createIrp();
+        queue.add(first);
+        awaitPending(1);
+        queue.add(createIrp());
+        final AtomicReference<Exception> error =
+            new AtomicReference<Exception>();
+        final Thread thread = addLater(queue, createIrp(), error);
+        awaitBlocked(thread);
+
+        complete(first);
+        thread.join();
+        assertNull(error.get());
+        assertEquals(1, queue.size());
+        queue.abort();
+    }
+
+    /**
+     * Tests that aborting the queue releases the slots of the discarded
+     * IRPs.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testSlotsReleasedOnAbort() throws Exception
+    {
+        setUpSync();
+        final TestQueue queue = new TestQueue();
+        queue.setCapacity(1);
+        queue.add(createIrp());
+        awaitPending(1);
+        queue.add(createIrp());
+        queue.abort();
+        assertEquals(0, queue.size());
+        queue.add(createIrp(), 0);
+        queue.abort();
+    }
+
+    /**
+     * Tests that raising the capacity wakes up threads waiting for free
+     * space.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testSetCapacity() throws Exception
+    {
+        setUpSync();
+        final TestQueue queue = new TestQueue();
+        queue.setCapacity(1);
+        assertEquals(1, queue.getCapacity());
+        queue.add(createIrp());
+        awaitPending(1);
+        queue.add(createIrp());
+        final AtomicReference<Exception> error =
+            new AtomicReference<Exception>();
+        final Thread thread = addLater(queue, createIrp(), error);
+        awaitBlocked(thread);
+
+        queue.setCapacity(2);
+        thread.join();
+        assertNull(error.get());
+        assertEquals(2, queue.size());
+
+        // Queued IRPs are kept when capacity is lowered
+        queue.setCapacity(1);
+        assertEquals(2, queue.size());
+        queue.setCapacity(0);
+        queue.add(createIrp(), 0);
+        assertEquals(3, queue.size());
+        queue.abort();
+    }
+
+    /**
+     * Tests setting a negative capacity.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetNegativeCapacity()
+    {
+        setUpSync();
+        new TestQueue().setCapacity(-1);
+    }
+
+    /**
+     * Tests that abort cancels the transfer the processor is waiting for.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testAbortCancelsActiveTransfer() throws Exception
+    {
+        setUpSync();
+        final TestQueue queue = new TestQueue();
+        final UsbIrp irp = createIrp();
+        queue.add(irp);
+        awaitPending(1);
+        queue.abort();
+        assertTrue(irp.isComplete());
+        assertTrue(irp.getUsbException() instanceof UsbAbortException);
+        assertTrue(this.backend.getPending().isEmpty());
+        assertFalse(queue.isBusy());
+    }
+
+    /**
+     * Tests that abort cancels the asynchronous transfers in flight.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testAbortCancelsTransfersInFlight() throws Exception
+    {
+        setUpAsync(2);
+        final TestQueue queue = new TestQueue();
+        final UsbIrp first = createIrp();
+        final UsbIrp second = createIrp();
+        queue.add(first);
+        queue.add(second);
+        awaitPending(2);
+        queue.abort();
+        assertTrue(first.getUsbException() instanceof UsbAbortException);
+        assertTrue(second.getUsbException() instanceof UsbAbortException);
+        assertTrue(this.backend.getPending().isEmpty());
+        assertFalse(queue.isBusy());
+    }
+
+    /**
+     * Tests that abort completes the futures of discarded IRPs while the
+     * discarded IRPs themselves are not completed.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testAbortCompletesDiscardedFutures() throws Exception
+    {
+        setUpSync();
+        final TestQueue queue = new TestQueue();
+        final UsbIrp first = createIrp();
+        final IrpFuture<UsbIrp> active = queue.submit(first);
+        awaitPending(1);
+        final UsbIrp second = createIrp();
+        final IrpFuture<UsbIrp> discarded = queue.submit(second);
+        queue.abort();
+
+        assertTrue(active.isDone());
+        assertFalse(active.isCancelled());
+        assertTrue(discarded.isDone());
+        assertTrue(discarded.isCancelled());
+        assertFalse(second.isComplete());
+        assertEquals(1, this.finished.size());
+    }
+
+    /**
+     * Tests that an IRP is processed on the calling thread when the queue
+     * is idle.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testAddOrProcessWhenIdle() throws Exception
+    {
+        setUpAsync(1);
+        final TestQueue queue = new TestQueue();
+        final UsbIrp irp = createIrp();
+        queue.addOrProcess(irp);
+        assertEquals(1, this.backend.getPending().size());
+        assertSame(Thread.currentThread(), this.processors.get(0));
+        complete(irp);
+        assertTrue(irp.isComplete());
+        assertFalse(queue.isBusy());
+    }
+
+    /**
+     * Tests that a synchronously processed IRP is never handed to the queue
+     * processor while its transfer is still completed by the thread which
+     * handles the transfer events.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testAddOrProcessWhenIdleAndSync() throws Exception
+    {
+        setUpSync();
+        final TestQueue queue = new TestQueue();
+        final UsbIrp irp = createIrp();
+        final AtomicReference<Exception> error =
+            new AtomicReference<Exception>();
+        final Thread caller = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    queue.addOrProcess(irp);
+                }
+                catch (final Exception e)
+                {
+                    error.set(e);
+                }
+            }
+        };
+        caller.start();
+        awaitPending(1);
+        assertSame(caller, this.processors.get(0));
+
+        // The test thread handles the transfer events and wakes up the caller
+        complete(irp);
+        caller.join();
+        assertNull(error.get());
+        assertEquals(Arrays.asList(irp), this.finished);
+        assertEquals(1, this.processors.size());
+    }
+
+    /**
+     * Tests that an IRP is queued behind the other IRPs when the queue is
+     * not idle.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testAddOrProcessKeepsOrder() throws Exception
+    {
+        setUpAsync(1);
+        final TestQueue queue = new TestQueue();
+        final UsbIrp first = createIrp();
+        final UsbIrp second = createIrp();
+        final UsbIrp third = createIrp();
+        queue.add(first);
+        queue.add(second);
+        awaitPending(1);
+        queue.addOrProcess(third);
+
+        complete(first);
+        awaitPending(1);
+        complete(second);
+        awaitPending(1);
+        complete(third);
+        third.waitUntilComplete(5000);
+        assertEquals(3, this.processors.size());
+        assertNotSame(Thread.currentThread(), this.processors.get(2));
+        assertEquals(first, this.finished.get(0));
+        assertEquals(second, this.finished.get(1));
+        assertEquals(third, this.finished.get(2));
+    }
+
+    /**
+     * Tests that a batch is queued in order and its IRPs are completed in
+     * order even when their transfers complete out of order.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testAddAll() throws Exception
+    {
+        setUpAsync(3);
+        final TestQueue queue = new TestQueue();
+        final List<UsbIrp> irps = new ArrayList<UsbIrp>();
+        for (int i = 0; i < 3; i += 1)
+            irps.add(createIrp());
+        queue.addAll(irps);
+        awaitPending(3);
+        final List<AsyncTransfer> pending = this.backend.getPending();
+        for (int i = 0; i < 3; i += 1)
+            assertSame(irps.get(i), pending.get(i).getIrp());
+
+        complete(irps.get(2));
+        complete(irps.get(0));
+        complete(irps.get(1));
+        for (final UsbIrp irp: irps)
+            irp.waitUntilComplete();
+        assertEquals(irps, this.finished);
+    }
+
+    /**
+     * Tests that a batch is partly queued when the queue timeout expires.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testAddAllWhenFull() throws Exception
+    {
+        final Properties properties = new Properties();
+        properties.setProperty("org.usb4java.javax.irpQueueCapacity", "2");
+        properties.setProperty("org.usb4java.javax.irpQueueTimeout", "0");
+        setUp(properties);
+        final TestQueue queue = new TestQueue();
+        queue.add(createIrp());
+        awaitPending(1);
+        final List<UsbIrp> irps = new ArrayList<UsbIrp>();
+        for (int i = 0; i < 3; i += 1)
+            irps.add(createIrp());
+        try
+        {
+            queue.addAll(irps);
+            fail("Queue is full");
+        }
+        catch (final UsbQueueFullException e)
+        {
+            assertEquals(2, queue.size());
+            assertFalse(irps.get(1).isComplete());
+            assertTrue(irps.get(2).isComplete());
+            assertSame(e, irps.get(2).getUsbException());
+        }
+        queue.abort();
+    }
+}
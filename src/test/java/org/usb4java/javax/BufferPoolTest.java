@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link BufferPool} class.
+ *
+ * @author usb4java Team
+ */
+public class BufferPoolTest
+{
+    /**
+     * Tests the constructor with a negative capacity.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithNegativeCapacity()
+    {
+        new BufferPool(-1);
+    }
+
+    /**
+     * Tests the size classes of acquired buffers.
+     */
+    @Test
+    public void testSizeClasses()
+    {
+        final BufferPool pool = new BufferPool(1024 * 1024);
+        assertEquals(64, pool.acquire(0).capacity());
+        assertEquals(64, pool.acquire(1).capacity());
+        assertEquals(64, pool.acquire(64).capacity());
+        assertEquals(128, pool.acquire(65).capacity());
+        assertEquals(512, pool.acquire(512).capacity());
+        assertEquals(1024, pool.acquire(513).capacity());
+    }
+
+    /**
+     * Tests the state of acquired buffers.
+     */
+    @Test
+    public void testAcquiredBufferState()
+    {
+        final BufferPool pool = new BufferPool(1024 * 1024);
+        final ByteBuffer buffer = pool.acquire(100);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(10);
+        pool.release(buffer);
+        final ByteBuffer reused = pool.acquire(70);
+        assertSame(buffer, reused);
+        assertTrue(reused.isDirect());
+        assertEquals(0, reused.position());
+        assertEquals(70, reused.limit());
+        assertEquals(ByteOrder.BIG_ENDIAN, reused.order());
+    }
+
+    /**
+     * Tests that acquiring the same size in a loop allocates only once.
+     */
+    @Test
+    public void testReuse()
+    {
+        final BufferPool pool = new BufferPool(1024 * 1024);
+        for (int i = 0; i < 1000; i += 1)
+        {
+            pool.release(pool.acquire(512));
+        }
+        assertEquals(1, pool.getAllocations());
+        assertEquals(512, pool.getSize());
+    }
+
+    /**
+     * Tests that the pool capacity is respected.
+     */
+    @Test
+    public void testCapacity()
+    {
+        final BufferPool pool = new BufferPool(1024);
+        final ByteBuffer a = pool.acquire(1024);
+        final ByteBuffer b = pool.acquire(1024);
+        pool.release(a);
+        pool.release(b);
+        assertEquals(1024, pool.getSize());
+        assertSame(a, pool.acquire(1024));
+        assertNotSame(b, pool.acquire(1024));
+        assertEquals(0, pool.getSize());
+    }
+
+    /**
+     * Tests that pooling can be disabled.
+     */
+    @Test
+    public void testDisabled()
+    {
+        final BufferPool pool = new BufferPool(0);
+        pool.release(pool.acquire(64));
+        pool.release(pool.acquire(64));
+        assertEquals(2, pool.getAllocations());
+        assertEquals(0, pool.getSize());
+    }
+
+    /**
+     * Tests that foreign buffers are not pooled.
+     */
+    @Test
+    public void testForeignBuffers()
+    {
+        final BufferPool pool = new BufferPool(1024 * 1024);
+        pool.release(null);
+        pool.release(ByteBuffer.allocate(64));
+        pool.release(ByteBuffer.allocateDirect(100));
+        assertEquals(0, pool.getSize());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.usb.UsbIrp;
+import javax.usb.UsbShortPacketException;
+import javax.usb.UsbStallException;
+import javax.usb.util.DefaultUsbIrp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link CoalescedIrp} class.
+ *
+ * @author usb4java Team
+ */
+public class CoalescedIrpTest
+{
+    /** The merged IRPs. */
+    private List<UsbIrp> irps;
+
+    /** The test subject. */
+    private CoalescedIrp merged;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        final Irp first = new Irp();
+        first.setData(new byte[] { 1, 2, 3 });
+        first.setTimeout(50);
+        this.irps = new ArrayList<UsbIrp>();
+        this.irps.add(first);
+        this.irps.add(new DefaultUsbIrp(new byte[] { 9, 4, 5, 9 }, 1, 2,
+            false));
+        this.irps.add(new DefaultUsbIrp(new byte[] { 6, 7 }));
+        this.merged = new CoalescedIrp(this.irps);
+    }
+
+    /**
+     * Tests the constructor without IRPs.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithoutIrps()
+    {
+        new CoalescedIrp(new ArrayList<UsbIrp>());
+    }
+
+    /**
+     * Tests the merged data.
+     */
+    @Test
+    public void testData()
+    {
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6, 7 },
+            this.merged.getData());
+        assertEquals(7, this.merged.getLength());
+        assertTrue(this.merged.getAcceptShortPacket());
+        assertEquals(50, this.merged.getTimeout());
+        assertEquals(this.irps, this.merged.getIrps());
+    }
+
+    /**
+     * Tests distributing a fully written transfer.
+     */
+    @Test
+    public void testDistribute()
+    {
+        this.merged.setActualLength(7);
+        this.merged.distribute();
+        for (final UsbIrp irp: this.irps)
+        {
+            assertEquals(irp.getLength(), irp.getActualLength());
+            assertFalse(irp.isUsbException());
+        }
+    }
+
+    /**
+     * Tests distributing a partially written transfer.
+     */
+    @Test
+    public void testDistributeShort()
+    {
+        this.merged.setActualLength(4);
+        this.merged.distribute();
+        assertEquals(3, this.irps.get(0).getActualLength());
+        assertEquals(1, this.irps.get(1).getActualLength());
+        assertTrue(this.irps.get(1).getUsbException()
+            instanceof UsbShortPacketException);
+        assertEquals(0, this.irps.get(2).getActualLength());
+        assertFalse(this.irps.get(2).isUsbException());
+    }
+
+    /**
+     * Tests distributing a failed transfer.
+     */
+    @Test
+    public void testDistributeFailure()
+    {
+        final UsbStallException exception = new UsbStallException();
+        this.merged.setUsbException(exception);
+        this.merged.distribute();
+        for (final UsbIrp irp: Arrays.asList(this.irps.get(0),
+            this.irps.get(2)))
+            assertSame(exception, irp.getUsbException());
+    }
+}
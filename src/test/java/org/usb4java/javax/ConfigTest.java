@@ -32,6 +32,16 @@ public class ConfigTest
         assertEquals(5000, config.getTimeout());
         assertEquals(500, config.getScanInterval());
         assertFalse(config.isUseUSBDK());
+        assertEquals(0, config.getInFlightTransfers());
+        assertEquals(4 * 1024 * 1024, config.getBufferPoolSize());
+        assertEquals(0, config.getMaxTransferSize());
+        assertEquals(4, config.getIsoTransfers());
+        assertEquals(IrpExecutors.Strategy.THREAD, config.getIrpExecutor());
+        assertEquals(4, config.getIrpExecutorThreads());
+        assertEquals(0, config.getIrpQueueCapacity());
+        assertEquals(-1, config.getIrpQueueTimeout());
+        assertEquals(-1, config.getEndpointTimeout((short) 0x1234,
+            (short) 0x5678, (byte) 0x81));
     }
 
     /**
@@ -58,6 +68,37 @@ public class ConfigTest
         assertEquals(1234, config.getTimeout());
     }
 
+    /**
+     * Tests the endpoint timeout configuration.
+     */
+    @Test
+    public void testEndpointTimeoutConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.timeout", "1234");
+        properties.put("org.usb4java.javax.timeout.1d6b.FFFF.81", "50");
+        properties.put("org.usb4java.javax.timeout.1d6b.ffff.0", "0");
+        final Config config = new Config(properties);
+        assertEquals(1234, config.getTimeout());
+        assertEquals(50, config.getEndpointTimeout((short) 0x1d6b,
+            (short) 0xffff, (byte) 0x81));
+        assertEquals(0, config.getEndpointTimeout((short) 0x1d6b,
+            (short) 0xffff, (byte) 0));
+        assertEquals(-1, config.getEndpointTimeout((short) 0x1d6b,
+            (short) 0xffff, (byte) 0x01));
+    }
+
+    /**
+     * Tests an invalid endpoint timeout key.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEndpointTimeoutConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.timeout.1d6b.81", "50");
+        new Config(properties);
+    }
+
     /**
      * Tests the USBDK usage flag configuration.
      */
@@ -69,4 +110,117 @@ public class ConfigTest
         final Config config = new Config(properties);
         assertTrue(config.isUseUSBDK());
     }
+
+    /**
+     * Tests the hotplug usage flag configuration.
+     */
+    @Test
+    public void testHotplugConfiguration()
+    {
+        final Properties properties = new Properties();
+        assertTrue(new Config(properties).isHotplug());
+        properties.put("org.usb4java.javax.hotplug", "false");
+        assertFalse(new Config(properties).isHotplug());
+    }
+
+    /**
+     * Tests the lazy configuration loading flag configuration.
+     */
+    @Test
+    public void testLazyConfigurationsConfiguration()
+    {
+        final Properties properties = new Properties();
+        assertFalse(new Config(properties).isLazyConfigurations());
+        properties.put("org.usb4java.javax.lazyConfigurations", "true");
+        assertTrue(new Config(properties).isLazyConfigurations());
+    }
+
+    /**
+     * Tests the in-flight transfers configuration.
+     */
+    @Test
+    public void testInFlightTransfersConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.inFlightTransfers", "8");
+        assertEquals(8, new Config(properties).getInFlightTransfers());
+        properties.put("org.usb4java.javax.inFlightTransfers", "-1");
+        assertEquals(0, new Config(properties).getInFlightTransfers());
+    }
+
+    /**
+     * Tests the buffer pool size configuration.
+     */
+    @Test
+    public void testBufferPoolSizeConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.bufferPoolSize", "65536");
+        assertEquals(65536, new Config(properties).getBufferPoolSize());
+    }
+
+    /**
+     * Tests the maximum transfer size configuration.
+     */
+    @Test
+    public void testMaxTransferSizeConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.maxTransferSize", "-1");
+        assertEquals(-1, new Config(properties).getMaxTransferSize());
+        properties.put("org.usb4java.javax.maxTransferSize", "16384");
+        assertEquals(16384, new Config(properties).getMaxTransferSize());
+    }
+
+    /**
+     * Tests the isochronous transfers configuration.
+     */
+    @Test
+    public void testIsoTransfersConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.isoTransfers", "8");
+        assertEquals(8, new Config(properties).getIsoTransfers());
+        properties.put("org.usb4java.javax.isoTransfers", "0");
+        assertEquals(1, new Config(properties).getIsoTransfers());
+    }
+
+    /**
+     * Tests the IRP executor configuration.
+     */
+    @Test
+    public void testIrpExecutorConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.irpExecutor", "pool");
+        properties.put("org.usb4java.javax.irpExecutorThreads", "8");
+        final Config config = new Config(properties);
+        assertEquals(IrpExecutors.Strategy.POOL, config.getIrpExecutor());
+        assertEquals(8, config.getIrpExecutorThreads());
+    }
+
+    /**
+     * Tests an unknown IRP executor configuration.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIrpExecutorConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.irpExecutor", "unknown");
+        new Config(properties);
+    }
+
+    /**
+     * Tests the IRP queue configuration.
+     */
+    @Test
+    public void testIrpQueueConfiguration()
+    {
+        final Properties properties = new Properties();
+        properties.put("org.usb4java.javax.irpQueueCapacity", "32");
+        properties.put("org.usb4java.javax.irpQueueTimeout", "0");
+        final Config config = new Config(properties);
+        assertEquals(32, config.getIrpQueueCapacity());
+        assertEquals(0, config.getIrpQueueTimeout());
+    }
 }
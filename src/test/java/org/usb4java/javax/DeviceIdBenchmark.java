@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.usb4java.javax.descriptors.SimpleUsbDeviceDescriptor;
+
+/**
+ * Micro benchmarks for the {@link DeviceId} class. The results depend on
+ * the JIT so the class is not part of the default test run. Run it with
+ * <code>mvn test -Dtest=DeviceIdBenchmark</code>.
+ *
+ * @author usb4java Team
+ */
+public class DeviceIdBenchmark
+{
+    /** A zero byte used in the dummy descriptor. */
+    private static final byte ZERO = 0;
+
+    /** A dummy device descriptor. */
+    private static final SimpleUsbDeviceDescriptor descriptor =
+        new SimpleUsbDeviceDescriptor(ZERO, ZERO, ZERO, ZERO, ZERO, ZERO, ZERO,
+            ZERO, ZERO, ZERO, ZERO, ZERO, ZERO, ZERO);
+
+    /**
+     * Returns the number of bytes allocated by the current thread.
+     *
+     * @param bean
+     *            The thread MX bean.
+     * @param method
+     *            The getThreadAllocatedBytes method of the bean.
+     * @return The allocated bytes.
+     * @throws Exception
+     *             When method could not be called.
+     */
+    private static long getAllocatedBytes(final ThreadMXBean bean,
+        final Method method) throws Exception
+    {
+        return (Long) method.invoke(bean, Thread.currentThread().getId());
+    }
+
+    /**
+     * Checks that looking up devices in a device map doesn't allocate
+     * anything. This is done for every device during every scan. Skipped
+     * when the JVM can't measure thread allocations.
+     *
+     * @throws Exception
+     *             When benchmark fails.
+     */
+    @Test
+    public void testLookupAllocation() throws Exception
+    {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Method method;
+        try
+        {
+            method = Class.forName("com.sun.management.ThreadMXBean")
+                .getMethod("getThreadAllocatedBytes", long.class);
+        }
+        catch (final Exception e)
+        {
+            method = null;
+        }
+        assumeTrue(method != null);
+
+        final int devices = 60;
+        final Map<DeviceId, Object> map = new HashMap<DeviceId, Object>();
+        final DeviceId[] lookups = new DeviceId[devices];
+        for (int i = 0; i < devices; i += 1)
+        {
+            map.put(new DeviceId(1, i + 1, i % 8, descriptor), this);
+            lookups[i] = new DeviceId(1, i + 1, i % 8, descriptor);
+        }
+
+        // Warm up and measure the overhead of the measurement itself
+        final int scans = 10000;
+        int found = 0;
+        for (int i = 0; i < scans; i += 1)
+            for (final DeviceId id: lookups)
+                if (map.containsKey(id)) found += 1;
+        final long start = getAllocatedBytes(bean, method);
+        final long overhead = getAllocatedBytes(bean, method) - start;
+
+        final long before = getAllocatedBytes(bean, method);
+        for (int i = 0; i < scans; i += 1)
+            for (final DeviceId id: lookups)
+                if (map.containsKey(id)) found += 1;
+        final long allocated = getAllocatedBytes(bean, method) - before
+            - overhead;
+        assertEquals(2 * scans * devices, found);
+
+        // Allow some noise but far less than one byte per lookup
+        assertTrue("Allocated " + allocated + " bytes in " + scans
+            + " scans", allocated < scans);
+    }
+}
@@ -101,4 +101,17 @@ public class DeviceIdTest
         assertTrue(subject.equals(equal));
         assertFalse(subject.equals(other));
     }
+
+    /**
+     * Tests the {@link DeviceId#createKey(int, int, int, short, short)}
+     * method.
+     */
+    @Test
+    public void testCreateKey()
+    {
+        assertEquals(0x010203001d6b0002L,
+            DeviceId.createKey(1, 2, 3, (short) 0x1d6b, (short) 0x0002));
+        assertFalse(DeviceId.createKey(1, 2, 3, (short) 0x1d6b, (short) 2)
+            == DeviceId.createKey(1, 3, 3, (short) 0x1d6b, (short) 2));
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import javax.usb.util.DefaultUsbIrp;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * Tests the {@link EventLoop} class.
+ *
+ * @author usb4java Team
+ */
+public class EventLoopTest
+{
+    /** The simulated backend. */
+    private FakeTransferBackend backend;
+
+    /** The test subject. */
+    private EventLoop loop;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new FakeTransferBackend();
+        this.loop = new EventLoop(this.backend);
+    }
+
+    /**
+     * Tests the constructor without a backend.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithoutBackend()
+    {
+        new EventLoop(null);
+    }
+
+    /**
+     * Tests starting and stopping the event loop.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 5000)
+    public void testStartStop() throws Exception
+    {
+        assertFalse(this.loop.isRunning());
+        this.loop.start();
+        this.loop.start();
+        assertTrue(this.loop.isRunning());
+        this.backend.awaitEventRuns(3);
+        this.loop.stop();
+        assertFalse(this.loop.isRunning());
+        assertEquals(1, this.backend.getInterrupts());
+        final int runs = this.backend.getEventRuns();
+        Thread.sleep(50);
+        assertEquals(runs, this.backend.getEventRuns());
+
+        // Stopping again does nothing
+        this.loop.stop();
+        assertEquals(1, this.backend.getInterrupts());
+    }
+
+    /**
+     * Tests that transfers are completed by the event loop thread.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 5000)
+    public void testCompletionFromEventThread() throws Exception
+    {
+        final Thread[] completionThread = new Thread[1];
+        final TransferWindow window = new TransferWindow(this.backend, 2,
+            new TransferListener()
+            {
+                @Override
+                public void transferCompleted(final AsyncTransfer transfer)
+                {
+                    completionThread[0] = Thread.currentThread();
+                }
+            });
+        window.submit(new AsyncTransfer(new DefaultUsbIrp(),
+            new DeviceHandle(), (byte) 0x81, LibUsb.TRANSFER_TYPE_BULK,
+            ByteBuffer.allocateDirect(8), 0));
+        final FakeTransferBackend backend = this.backend;
+        final EventLoop loop = new EventLoop(new TransferBackend()
+        {
+            @Override
+            public int submit(final AsyncTransfer transfer)
+            {
+                return backend.submit(transfer);
+            }
+
+            @Override
+            public int cancel(final AsyncTransfer transfer)
+            {
+                return backend.cancel(transfer);
+            }
+
+            @Override
+            public int handleEvents(final long timeout)
+            {
+                // Simulate libusb completing the pending transfer while
+                // handling events
+                if (!backend.getPending().isEmpty())
+                    backend.complete(0, LibUsb.TRANSFER_COMPLETED, 8);
+                return backend.handleEvents(timeout);
+            }
+
+            @Override
+            public void interrupt()
+            {
+                backend.interrupt();
+            }
+        });
+        loop.start();
+        window.awaitEmpty();
+        loop.stop();
+        assertEquals("usb4java Event Handler", completionThread[0].getName());
+    }
+}
@@ -6,10 +6,13 @@
 package org.usb4java.javax;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Constructor;
 
+import javax.usb.UsbAbortException;
 import javax.usb.UsbPlatformException;
+import javax.usb.UsbStallException;
 
 import org.junit.Test;
 import org.usb4java.LibUsb;
@@ -36,6 +39,24 @@ public class ExceptionUtilsTest
         assertEquals(LibUsb.ERROR_IO, e.getErrorCode());
     }
 
+    /**
+     * Tests the {@link ExceptionUtils#createTransferException(String, int)}
+     * method.
+     */
+    @Test
+    public void testCreateTransferException()
+    {
+        assertTrue(ExceptionUtils.createTransferException("Custom message",
+            LibUsb.TRANSFER_CANCELLED) instanceof UsbAbortException);
+        assertTrue(ExceptionUtils.createTransferException("Custom message",
+            LibUsb.TRANSFER_STALL) instanceof UsbStallException);
+        final UsbPlatformException e = (UsbPlatformException)
+            ExceptionUtils.createTransferException("Custom message",
+                LibUsb.TRANSFER_TIMED_OUT);
+        assertEquals(LibUsb.ERROR_TIMEOUT, e.getErrorCode());
+        assertTrue(e instanceof UsbTimeoutException);
+    }
+
     /**
      * Ensure constructor is private.
      * 
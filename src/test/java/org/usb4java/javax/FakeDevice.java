@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.util.Properties;
+
+import org.usb4java.DeviceHandle;
+import org.usb4java.javax.descriptors.SimpleUsbDeviceDescriptor;
+
+/**
+ * Simulated device. It is already open and its transfers are completed by
+ * the specified transfer backend instead of libusb.
+ *
+ * @author usb4java Team
+ */
+final class FakeDevice extends AbstractDevice
+{
+    /**
+     * Constructor.
+     *
+     * @param properties
+     *            The configuration properties.
+     * @param backend
+     *            The backend completing the transfers.
+     */
+    FakeDevice(final Properties properties, final TransferBackend backend)
+    {
+        super(new DeviceManager(new Config(properties), backend),
+            new DeviceId(0, 1, 0, new SimpleUsbDeviceDescriptor((byte) 18,
+                (byte) 1, (short) 0x0200, (byte) 0, (byte) 0, (byte) 0,
+                (byte) 64, (short) 0, (short) 0, (short) 0, (byte) 0,
+                (byte) 0, (byte) 0, (byte) 1)), new DeviceHandle());
+    }
+
+    @Override
+    public boolean isUsbHub()
+    {
+        return false;
+    }
+}
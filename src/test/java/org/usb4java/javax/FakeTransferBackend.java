@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.usb4java.LibUsb;
+
+/**
+ * Simulated transfer backend. Submitted transfers stay pending until the test
+ * completes them explicitly.
+ *
+ * @author usb4java Team
+ */
+final class FakeTransferBackend implements TransferBackend
+{
+    /** The pending transfers in submission order. */
+    private final List<AsyncTransfer> pending = new ArrayList<AsyncTransfer>();
+
+    /** The number of handleEvents calls. */
+    private int eventRuns;
+
+    /** The number of interrupt calls. */
+    private int interrupts;
+
+    /** The result to return on submit. */
+    private int submitResult = LibUsb.SUCCESS;
+
+    @Override
+    public synchronized int submit(final AsyncTransfer transfer)
+    {
+        if (this.submitResult < 0) return this.submitResult;
+        this.pending.add(transfer);
+        return LibUsb.SUCCESS;
+    }
+
+    @Override
+    public int cancel(final AsyncTransfer transfer)
+    {
+        synchronized (this)
+        {
+            if (!this.pending.remove(transfer)) return LibUsb.ERROR_NOT_FOUND;
+        }
+        transfer.complete(LibUsb.TRANSFER_CANCELLED, 0);
+        return LibUsb.SUCCESS;
+    }
+
+    @Override
+    public synchronized int handleEvents(final long timeout)
+    {
+        this.eventRuns++;
+        notifyAll();
+        try
+        {
+            wait(Math.min(timeout, 10));
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return LibUsb.ERROR_INTERRUPTED;
+        }
+        return LibUsb.SUCCESS;
+    }
+
+    @Override
+    public synchronized void interrupt()
+    {
+        this.interrupts++;
+        notifyAll();
+    }
+
+    /**
+     * Sets the result returned by submit.
+     *
+     * @param submitResult
+     *            The result to return. 0 for success.
+     */
+    synchronized void setSubmitResult(final int submitResult)
+    {
+        this.submitResult = submitResult;
+    }
+
+    /**
+     * Returns the pending transfers.
+     *
+     * @return The pending transfers in submission order.
+     */
+    synchronized List<AsyncTransfer> getPending()
+    {
+        return new ArrayList<AsyncTransfer>(this.pending);
+    }
+
+    /**
+     * Returns the number of handleEvents calls.
+     *
+     * @return The number of event runs.
+     */
+    synchronized int getEventRuns()
+    {
+        return this.eventRuns;
+    }
+
+    /**
+     * Returns the number of interrupt calls.
+     *
+     * @return The number of interrupts.
+     */
+    synchronized int getInterrupts()
+    {
+        return this.interrupts;
+    }
+
+    /**
+     * Waits until the specified number of event runs has been reached.
+     *
+     * @param runs
+     *            The number of event runs to wait for.
+     * @throws InterruptedException
+     *             When thread has been interrupted.
+     */
+    synchronized void awaitEventRuns(final int runs)
+        throws InterruptedException
+    {
+        while (this.eventRuns < runs)
+            wait();
+    }
+
+    /**
+     * Completes the pending transfer with the specified index.
+     *
+     * @param index
+     *            The index of the pending transfer.
+     * @param status
+     *            The transfer status.
+     * @param actualLength
+     *            The number of transferred bytes.
+     * @return The completed transfer.
+     */
+    AsyncTransfer complete(final int index, final int status,
+        final int actualLength)
+    {
+        final AsyncTransfer transfer;
+        synchronized (this)
+        {
+            transfer = this.pending.remove(index);
+        }
+        transfer.complete(status, actualLength);
+        return transfer;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.usb.UsbException;
+import javax.usb.UsbPipe;
+
+import org.junit.Test;
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * Tests the {@link InterruptPoller} class.
+ *
+ * @author usb4java Team
+ */
+public class InterruptPollerTest
+{
+    /**
+     * Tests the polling interval of full and low speed devices.
+     */
+    @Test
+    public void testFullSpeedInterval()
+    {
+        assertEquals(1000, InterruptPoller.getInterval((byte) 1,
+            LibUsb.SPEED_FULL));
+        assertEquals(10000, InterruptPoller.getInterval((byte) 10,
+            LibUsb.SPEED_LOW));
+        assertEquals(255000, InterruptPoller.getInterval((byte) 255,
+            LibUsb.SPEED_FULL));
+        assertEquals(1000, InterruptPoller.getInterval((byte) 0,
+            LibUsb.SPEED_FULL));
+    }
+
+    /**
+     * Tests the polling interval of high and super speed devices.
+     */
+    @Test
+    public void testHighSpeedInterval()
+    {
+        assertEquals(125, InterruptPoller.getInterval((byte) 1,
+            LibUsb.SPEED_HIGH));
+        assertEquals(1000, InterruptPoller.getInterval((byte) 4,
+            LibUsb.SPEED_HIGH));
+        assertEquals(4096000, InterruptPoller.getInterval((byte) 16,
+            LibUsb.SPEED_SUPER));
+    }
+
+    /**
+     * Tests the number of armed transfers.
+     */
+    @Test
+    public void testTransfers()
+    {
+        assertEquals(InterruptPoller.MAX_TRANSFERS,
+            InterruptPoller.getTransfers(125));
+        assertEquals(8, InterruptPoller.getTransfers(1000));
+        assertEquals(3, InterruptPoller.getTransfers(3000));
+        assertEquals(InterruptPoller.MIN_TRANSFERS,
+            InterruptPoller.getTransfers(255000));
+    }
+
+    /**
+     * Tests that reports are delivered with a timestamp.
+     *
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    @Test
+    public void testReports() throws UsbException
+    {
+        final List<Long> timestamps = new ArrayList<Long>();
+        final UsbPipe pipe = mock(UsbPipe.class);
+        final InterruptPoller poller = new InterruptPoller(
+            new InterruptListener()
+            {
+                @Override
+                public void reportReceived(final UsbPipe reportPipe,
+                    final ByteBuffer data, final long timestamp)
+                {
+                    assertSame(pipe, reportPipe);
+                    assertEquals(8, data.remaining());
+                    timestamps.add(timestamp);
+                }
+
+                @Override
+                public void errorOccurred(final UsbPipe errorPipe,
+                    final UsbException e)
+                {
+                    throw new AssertionError(e);
+                }
+            });
+        final FakeTransferBackend backend = new FakeTransferBackend();
+        final PipeStream stream = new PipeStream(pipe, backend,
+            new BufferPool(4096), new DeviceHandle(), (byte) 0x81,
+            LibUsb.TRANSFER_TYPE_INTERRUPT, 2, 8, poller);
+        stream.start();
+        final long start = System.nanoTime();
+        backend.complete(0, LibUsb.TRANSFER_COMPLETED, 8);
+        backend.complete(0, LibUsb.TRANSFER_COMPLETED, 8);
+        assertEquals(2, timestamps.size());
+        assertTrue(timestamps.get(0) >= start);
+        assertTrue(timestamps.get(1) >= timestamps.get(0));
+        assertEquals(2, backend.getPending().size());
+        stream.stop();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link IrpExecutors} class.
+ *
+ * @author usb4java Team
+ */
+public class IrpExecutorsTest
+{
+    /**
+     * Runs a task with the specified executor and returns the thread which
+     * executed it.
+     *
+     * @param executor
+     *            The executor.
+     * @return The thread which executed the task.
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    private static Thread run(final Executor executor)
+        throws InterruptedException
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        executor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                thread.set(Thread.currentThread());
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return thread.get();
+    }
+
+    /**
+     * Tests the constructor with an invalid pool size.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithInvalidPoolSize()
+    {
+        new IrpExecutors(IrpExecutors.Strategy.POOL, 0);
+    }
+
+    /**
+     * Tests parsing the strategy names.
+     */
+    @Test
+    public void testParse()
+    {
+        assertSame(IrpExecutors.Strategy.WORKER,
+            IrpExecutors.Strategy.parse(" worker "));
+        assertSame(IrpExecutors.Strategy.POOL,
+            IrpExecutors.Strategy.parse("POOL"));
+    }
+
+    /**
+     * Tests parsing an unknown strategy name.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseUnknown()
+    {
+        IrpExecutors.Strategy.parse("fibers");
+    }
+
+    /**
+     * Tests the thread strategy.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testThread() throws InterruptedException
+    {
+        final IrpExecutors executors =
+            new IrpExecutors(IrpExecutors.Strategy.THREAD, 1);
+        final Executor executor = executors.getQueueExecutor();
+        final Thread thread = run(executor);
+        assertEquals("usb4java IRP Queue Processor", thread.getName());
+        assertTrue(thread.isDaemon());
+        assertNotSame(thread, run(executor));
+    }
+
+    /**
+     * Tests the worker strategy.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testWorker() throws InterruptedException
+    {
+        final IrpExecutors executors =
+            new IrpExecutors(IrpExecutors.Strategy.WORKER, 1);
+        final Executor executor = executors.getQueueExecutor();
+        assertNotSame(executor, executors.getQueueExecutor());
+        final Thread thread = run(executor);
+        assertSame(thread, run(executor));
+    }
+
+    /**
+     * Tests the pool strategy.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testPool() throws InterruptedException
+    {
+        final IrpExecutors executors =
+            new IrpExecutors(IrpExecutors.Strategy.POOL, 2);
+        try
+        {
+            assertSame(executors.getQueueExecutor(),
+                executors.getQueueExecutor());
+            assertEquals("usb4java IRP Queue Processor",
+                run(executors.getQueueExecutor()).getName());
+        }
+        finally
+        {
+            executors.shutdown();
+        }
+    }
+
+    /**
+     * Tests the virtual strategy. Falls back to platform threads on Java
+     * runtimes without virtual threads.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testVirtual() throws InterruptedException
+    {
+        final IrpExecutors executors =
+            new IrpExecutors(IrpExecutors.Strategy.VIRTUAL, 1);
+        final IrpExecutors.Strategy expected =
+            IrpExecutors.createVirtualThreadFactory() == null
+                ? IrpExecutors.Strategy.THREAD : IrpExecutors.Strategy.VIRTUAL;
+        assertSame(expected, executors.getStrategy());
+        assertEquals("usb4java IRP Queue Processor",
+            run(executors.getQueueExecutor()).getName());
+    }
+}
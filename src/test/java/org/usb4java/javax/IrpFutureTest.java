@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.usb.UsbIrp;
+import javax.usb.UsbStallException;
+import javax.usb.util.DefaultUsbIrp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link IrpFuture} class.
+ *
+ * @author usb4java Team
+ */
+public class IrpFutureTest
+{
+    /** The IRP. */
+    private UsbIrp irp;
+
+    /** The test subject. */
+    private IrpFuture<UsbIrp> future;
+
+    /** The futures reported to the listener. */
+    private List<IrpFuture<UsbIrp>> reported;
+
+    /** The test listener. */
+    private IrpFutureListener<UsbIrp> listener;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.irp = new DefaultUsbIrp();
+        this.future = new IrpFuture<UsbIrp>(this.irp);
+        this.reported = new ArrayList<IrpFuture<UsbIrp>>();
+        this.listener = new IrpFutureListener<UsbIrp>()
+        {
+            @Override
+            public void futureDone(final IrpFuture<UsbIrp> future)
+            {
+                IrpFutureTest.this.reported.add(future);
+            }
+        };
+    }
+
+    /**
+     * Tests the constructor with a null IRP.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithoutIrp()
+    {
+        new IrpFuture<UsbIrp>(null);
+    }
+
+    /**
+     * Tests a successfully completed IRP.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testDone() throws Exception
+    {
+        this.future.addListener(this.listener);
+        assertFalse(this.future.isDone());
+        assertTrue(this.reported.isEmpty());
+        this.future.done(false);
+        assertTrue(this.future.isDone());
+        assertFalse(this.future.isCancelled());
+        assertEquals(1, this.reported.size());
+        assertSame(this.irp, this.future.get());
+        assertSame(this.irp, this.future.get(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests adding a listener to a done future.
+     */
+    @Test
+    public void testListenerAfterDone()
+    {
+        this.future.done(false);
+        this.future.done(false);
+        this.future.addListener(this.listener);
+        assertEquals(1, this.reported.size());
+    }
+
+    /**
+     * Tests a failed IRP.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testFailed() throws InterruptedException
+    {
+        final UsbStallException exception = new UsbStallException();
+        this.irp.setUsbException(exception);
+        this.future.done(false);
+        try
+        {
+            this.future.get();
+            fail("ExecutionException expected");
+        }
+        catch (final ExecutionException e)
+        {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    /**
+     * Tests a discarded IRP.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(expected = CancellationException.class)
+    public void testCancelled() throws Exception
+    {
+        assertFalse(this.future.cancel(true));
+        this.future.done(true);
+        assertTrue(this.future.isCancelled());
+        this.future.get();
+    }
+
+    /**
+     * Tests waiting with a timeout.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(expected = TimeoutException.class)
+    public void testTimeout() throws Exception
+    {
+        this.future.get(10, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tests waiting for a future which is done by another thread.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testWait() throws Exception
+    {
+        final Thread thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                IrpFutureTest.this.future.done(false);
+            }
+        });
+        thread.start();
+        assertSame(this.irp, this.future.get(5, TimeUnit.SECONDS));
+        thread.join();
+    }
+}
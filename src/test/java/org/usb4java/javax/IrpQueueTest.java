@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.usb.UsbConst;
+import javax.usb.UsbIrp;
+import javax.usb.util.DefaultUsbIrp;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.LibUsb;
+import org.usb4java.javax.descriptors.SimpleUsbEndpointDescriptor;
+
+/**
+ * Tests the {@link IrpQueue} class.
+ *
+ * @author usb4java Team
+ */
+public class IrpQueueTest
+{
+    /** The simulated backend. */
+    private final FakeTransferBackend backend = new FakeTransferBackend();
+
+    /** The test subject. */
+    private IrpQueue queue;
+
+    /**
+     * Set up the test with a bulk OUT endpoint with a maximum packet size of
+     * 64 bytes and the default configuration.
+     *
+     * @throws Exception
+     *             When set up fails.
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        final Endpoint endpoint = new Endpoint(
+            new FakeDevice(new Properties(), this.backend),
+            new SimpleUsbEndpointDescriptor((byte) 7, (byte) 5, (byte) 0x02,
+                UsbConst.ENDPOINT_TYPE_BULK, (short) 64, (byte) 0));
+        this.queue = new IrpQueue(endpoint.getPipe());
+    }
+
+    /**
+     * Creates IRPs with the specified lengths.
+     *
+     * @param lengths
+     *            The IRP lengths.
+     * @return The IRPs.
+     */
+    private static List<UsbIrp> createIrps(final int... lengths)
+    {
+        final List<UsbIrp> irps = new ArrayList<UsbIrp>();
+        for (final int length: lengths)
+        {
+            final UsbIrp irp = new DefaultUsbIrp(new byte[length]);
+            irp.setAcceptShortPacket(true);
+            irps.add(irp);
+        }
+        return irps;
+    }
+
+    /**
+     * Completes the transfers reaching the backend until all specified IRPs
+     * are complete.
+     *
+     * @param irps
+     *            The IRPs to wait for.
+     * @return The sizes of the completed transfers.
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    private List<Integer> transferAll(final List<UsbIrp> irps)
+        throws InterruptedException
+    {
+        final List<Integer> sizes = new ArrayList<Integer>();
+        for (final UsbIrp irp: irps)
+        {
+            while (!irp.isComplete())
+            {
+                if (this.backend.getPending().isEmpty())
+                {
+                    Thread.sleep(1);
+                    continue;
+                }
+                final int size = this.backend.getPending().get(0).getBuffer()
+                    .limit();
+                this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, size);
+                sizes.add(size);
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Tests that coalesced IRPs are sent in a single transfer even when they
+     * are larger than the maximum packet size.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testCoalescedIrpIsSentInOneTransfer() throws Exception
+    {
+        this.queue.setCoalescing(400, 5000);
+        final List<UsbIrp> irps = createIrps(100, 100, 100, 100);
+        this.queue.addAll(irps);
+        assertEquals(Arrays.asList(400), transferAll(irps));
+        for (final UsbIrp irp: irps)
+            assertEquals(100, irp.getActualLength());
+    }
+
+    /**
+     * Tests that zero-length IRPs are not coalesced.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testZeroLengthIrpIsNotCoalesced() throws Exception
+    {
+        this.queue.setCoalescing(200, 5000);
+        final List<UsbIrp> irps = createIrps(100, 0, 100, 100);
+        this.queue.addAll(irps);
+
+        // The first IRP is sent alone (and segmented), the zero-length IRP
+        // needs no transfer and the last two IRPs are coalesced
+        assertEquals(Arrays.asList(64, 36, 200), transferAll(irps));
+        for (final UsbIrp irp: irps)
+            assertTrue(irp.isComplete());
+    }
+
+    /**
+     * Tests that IRPs which are not coalesced are still split into segments
+     * of the maximum packet size.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 10000)
+    public void testUncoalescedIrpIsSegmented() throws Exception
+    {
+        final List<UsbIrp> irps = createIrps(100);
+        this.queue.addAll(irps);
+        assertEquals(Arrays.asList(64, 36), transferAll(irps));
+    }
+}
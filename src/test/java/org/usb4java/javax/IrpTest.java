@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import javax.usb.UsbException;
+import javax.usb.util.DefaultUsbIrp;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link Irp} and {@link ControlIrp} classes.
+ *
+ * @author usb4java Team
+ */
+public class IrpTest
+{
+    /**
+     * Tests an IRP with a direct buffer.
+     */
+    @Test
+    public void testBuffer()
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.position(4);
+        buffer.limit(12);
+        final Irp irp = new Irp(buffer);
+        assertSame(buffer, irp.getBuffer());
+        assertEquals(0, irp.getData().length);
+        assertEquals(0, irp.getOffset());
+        assertEquals(8, irp.getLength());
+        assertTrue(AbstractIrpQueue.hasDirectBuffer(irp));
+    }
+
+    /**
+     * Tests that setting a byte array removes the buffer.
+     */
+    @Test
+    public void testSetData()
+    {
+        final Irp irp = new Irp(ByteBuffer.allocateDirect(16));
+        irp.setData(new byte[4]);
+        assertNull(irp.getBuffer());
+        assertEquals(4, irp.getLength());
+        assertFalse(AbstractIrpQueue.hasDirectBuffer(irp));
+    }
+
+    /**
+     * Tests that heap buffers are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testHeapBuffer()
+    {
+        new Irp(ByteBuffer.allocate(16));
+    }
+
+    /**
+     * Tests a control IRP with a direct buffer.
+     */
+    @Test
+    public void testControlIrpBuffer()
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(18);
+        final ControlIrp irp = new ControlIrp((byte) 0x80, (byte) 6,
+            (short) 0x100, (short) 0, buffer);
+        assertSame(buffer, irp.getBuffer());
+        assertEquals(18, irp.wLength());
+        assertTrue(AbstractIrpQueue.hasDirectBuffer(irp));
+    }
+
+    /**
+     * Tests the data region of a direct buffer.
+     *
+     * @throws UsbException
+     *             When test fails.
+     */
+    @Test
+    public void testGetDirectBuffer() throws UsbException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        for (int i = 0; i < 16; i += 1) buffer.put((byte) i);
+        buffer.position(4);
+        final Irp irp = new Irp(buffer);
+        irp.setLength(6);
+        final ByteBuffer region = AbstractIrpQueue.getDirectBuffer(irp);
+        assertTrue(region.isDirect());
+        assertEquals(0, region.position());
+        assertEquals(6, region.limit());
+        assertEquals(4, region.get(0));
+        region.put(0, (byte) 42);
+        assertEquals(42, buffer.get(4));
+        assertEquals(4, buffer.position());
+        assertEquals(16, buffer.limit());
+    }
+
+    /**
+     * Tests the data region of an IRP which is longer than its buffer.
+     *
+     * @throws UsbException
+     *             When IRP length exceeds the buffer.
+     */
+    @Test(expected = UsbException.class)
+    public void testGetDirectBufferWithTooLargeLength() throws UsbException
+    {
+        final Irp irp = new Irp(ByteBuffer.allocateDirect(16));
+        irp.setLength(17);
+        AbstractIrpQueue.getDirectBuffer(irp);
+    }
+
+    /**
+     * Tests the data region of an IRP without a buffer.
+     *
+     * @throws UsbException
+     *             When test fails.
+     */
+    @Test
+    public void testGetDirectBufferWithoutBuffer() throws UsbException
+    {
+        assertNull(AbstractIrpQueue.getDirectBuffer(new DefaultUsbIrp()));
+        assertNull(AbstractIrpQueue.getDirectBuffer(new Irp()));
+    }
+
+    /**
+     * Tests the IRP timeout.
+     */
+    @Test
+    public void testTimeout()
+    {
+        final Irp irp = new Irp();
+        assertEquals(-1, irp.getTimeout());
+        irp.setTimeout(250);
+        assertEquals(250, irp.getTimeout());
+        final ControlIrp controlIrp =
+            new ControlIrp((byte) 0, (byte) 0, (short) 0, (short) 0);
+        assertEquals(-1, controlIrp.getTimeout());
+        controlIrp.setTimeout(0);
+        assertEquals(0, controlIrp.getTimeout());
+    }
+
+    /**
+     * Tests the stream ID.
+     */
+    @Test
+    public void testStreamId()
+    {
+        final Irp irp = new Irp();
+        assertEquals(0, irp.getStreamId());
+        irp.setStreamId(3);
+        assertEquals(3, irp.getStreamId());
+    }
+
+    /**
+     * Tests setting a negative stream ID.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeStreamId()
+    {
+        new Irp().setStreamId(-1);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * Tests the {@link IsoIrp} class.
+ *
+ * @author usb4java Team
+ */
+public class IsoIrpTest
+{
+    /**
+     * Tests the constructor with a negative number of packets.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithNegativePackets()
+    {
+        new IsoIrp(-1);
+    }
+
+    /**
+     * Tests the packet lengths and offsets.
+     */
+    @Test
+    public void testPacketLengths()
+    {
+        final IsoIrp irp = new IsoIrp(3);
+        irp.setData(new byte[64]);
+        assertEquals(3, irp.getNumPackets());
+        irp.setPacketLengths(16);
+        irp.setPacketLength(2, 8);
+        assertArrayEquals(new int[] { 16, 16, 8 }, irp.getPacketLengths());
+        assertEquals(0, irp.getPacketOffset(0));
+        assertEquals(16, irp.getPacketOffset(1));
+        assertEquals(32, irp.getPacketOffset(2));
+    }
+
+    /**
+     * Tests setting a negative packet length.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePacketLength()
+    {
+        new IsoIrp(1).setPacketLength(0, -1);
+    }
+
+    /**
+     * Tests the packet results.
+     */
+    @Test
+    public void testPacketResults()
+    {
+        final IsoIrp irp = new IsoIrp(ByteBuffer.allocateDirect(32), 2);
+        assertEquals(32, irp.getLength());
+        irp.setPacketResult(0, LibUsb.TRANSFER_COMPLETED, 12);
+        irp.setPacketResult(1, LibUsb.TRANSFER_ERROR, 0);
+        assertTrue(irp.isPacketCompleted(0));
+        assertEquals(12, irp.getPacketActualLength(0));
+        assertFalse(irp.isPacketCompleted(1));
+        assertEquals(LibUsb.TRANSFER_ERROR, irp.getPacketStatus(1));
+    }
+
+    /**
+     * Tests the isochronous packets of an asynchronous transfer.
+     */
+    @Test
+    public void testAsyncTransferPackets()
+    {
+        final AsyncTransfer transfer = new AsyncTransfer(new IsoIrp(2),
+            new DeviceHandle(), (byte) 0x81,
+            LibUsb.TRANSFER_TYPE_ISOCHRONOUS, ByteBuffer.allocateDirect(16),
+            0);
+        assertEquals(0, transfer.getIsoPacketCount());
+        final int[] lengths = new int[] { 8, 8 };
+        transfer.setIsoPacketLengths(lengths);
+        lengths[0] = 0;
+        assertEquals(2, transfer.getIsoPacketCount());
+        assertEquals(8, transfer.getIsoPacketLength(0));
+        transfer.setIsoPacketResult(1, LibUsb.TRANSFER_COMPLETED, 5);
+        assertEquals(5, transfer.getIsoPacketActualLength(1));
+        assertEquals(LibUsb.TRANSFER_COMPLETED, transfer.getIsoPacketStatus(1));
+    }
+}
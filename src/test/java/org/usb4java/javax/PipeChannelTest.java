@@ -0,0 +1,467 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+
+import javax.usb.UsbConst;
+import javax.usb.UsbEndpoint;
+import javax.usb.UsbIrp;
+import javax.usb.UsbPipe;
+import javax.usb.UsbException;
+import javax.usb.UsbStallException;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests the {@link PipeChannel} class.
+ *
+ * @author usb4java Team
+ */
+public class PipeChannelTest
+{
+    /**
+     * Answer which completes the submitted IRP. IN IRPs receive up to the
+     * specified number of bytes counting upwards from 1.
+     */
+    private static final class Transfer implements Answer<Void>
+    {
+        /** The maximum number of bytes per IRP. */
+        private final int max;
+
+        /**
+         * Constructor.
+         *
+         * @param max
+         *            The maximum number of bytes per IRP.
+         */
+        Transfer(final int max)
+        {
+            this.max = max;
+        }
+
+        @Override
+        public Void answer(final InvocationOnMock invocation)
+        {
+            final Irp irp = invocation.getArgument(0);
+            final int length = Math.min(irp.getLength(), this.max);
+            final ByteBuffer buffer = irp.getBuffer();
+            for (int i = 0; i < length; i += 1)
+            {
+                if (buffer != null)
+                    buffer.put(buffer.position() + i, (byte) (i + 1));
+                else
+                    irp.getData()[irp.getOffset() + i] = (byte) (i + 1);
+            }
+            irp.setActualLength(length);
+            irp.complete();
+            return null;
+        }
+    }
+
+    /**
+     * Answer which transfers the first submitted IRPs completely and fails
+     * on the following one.
+     */
+    private static final class Failure implements Answer<Void>
+    {
+        /** The number of successful IRPs. */
+        private final int successful;
+
+        /** The exception of the failed IRP. */
+        private final UsbException exception;
+
+        /** The number of submitted IRPs. */
+        private int submitted;
+
+        /**
+         * Constructor.
+         *
+         * @param successful
+         *            The number of successful IRPs.
+         * @param exception
+         *            The exception of the failed IRP.
+         */
+        Failure(final int successful, final UsbException exception)
+        {
+            this.successful = successful;
+            this.exception = exception;
+        }
+
+        @Override
+        public Void answer(final InvocationOnMock invocation)
+            throws UsbException
+        {
+            final Irp irp = invocation.getArgument(0);
+            this.submitted += 1;
+            if (this.submitted > this.successful)
+            {
+                irp.setUsbException(this.exception);
+                irp.complete();
+                throw this.exception;
+            }
+            irp.setActualLength(irp.getLength());
+            irp.complete();
+            return null;
+        }
+    }
+
+    /**
+     * Creates a mocked pipe.
+     *
+     * @param direction
+     *            The endpoint direction.
+     * @param max
+     *            The maximum number of bytes per IRP.
+     * @return The pipe.
+     * @throws Exception
+     *             When mocking fails.
+     */
+    private static UsbPipe createPipe(final byte direction, final int max)
+        throws Exception
+    {
+        final UsbEndpoint endpoint = mock(UsbEndpoint.class);
+        when(endpoint.getDirection()).thenReturn(direction);
+        final UsbPipe pipe = mock(UsbPipe.class);
+        when(pipe.getUsbEndpoint()).thenReturn(endpoint);
+        doAnswer(new Transfer(max)).when(pipe).syncSubmit(any(UsbIrp.class));
+        doAnswer(new Transfer(max)).when(pipe).asyncSubmit(any(UsbIrp.class));
+        return pipe;
+    }
+
+    /**
+     * Tests reading into a direct buffer.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testReadDirect() throws Exception
+    {
+        final PipeChannel channel = new PipeChannel(
+            createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 64));
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.position(4);
+        assertEquals(12, channel.read(buffer));
+        assertEquals(16, buffer.position());
+        assertEquals(1, buffer.get(4));
+        assertEquals(12, buffer.get(15));
+    }
+
+    /**
+     * Tests reading into a heap buffer.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testReadHeap() throws Exception
+    {
+        final PipeChannel channel = new PipeChannel(
+            createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 5));
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.position(2);
+        assertEquals(5, channel.read(buffer));
+        assertEquals(7, buffer.position());
+        assertEquals(1, buffer.get(2));
+        assertEquals(5, buffer.get(6));
+    }
+
+    /**
+     * Tests that a scattering read stops on a short packet.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testScatteringRead() throws Exception
+    {
+        final PipeChannel channel = new PipeChannel(
+            createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 8));
+        final ByteBuffer[] buffers = new ByteBuffer[] {
+            ByteBuffer.allocateDirect(8), ByteBuffer.allocate(4),
+            ByteBuffer.allocate(16), ByteBuffer.allocate(8) };
+        assertEquals(20, channel.read(buffers));
+        assertFalse(buffers[0].hasRemaining());
+        assertFalse(buffers[1].hasRemaining());
+        assertEquals(8, buffers[2].position());
+        assertEquals(0, buffers[3].position());
+    }
+
+    /**
+     * Tests writing a read-only buffer.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testWriteReadOnly() throws Exception
+    {
+        final PipeChannel channel = new PipeChannel(
+            createPipe(UsbConst.ENDPOINT_DIRECTION_OUT, 64));
+        final ByteBuffer buffer =
+            ByteBuffer.wrap(new byte[10]).asReadOnlyBuffer();
+        assertEquals(10, channel.write(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    /**
+     * Tests a gathering write.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testGatheringWrite() throws Exception
+    {
+        final PipeChannel channel = new PipeChannel(
+            createPipe(UsbConst.ENDPOINT_DIRECTION_OUT, 64));
+        final ByteBuffer[] buffers = new ByteBuffer[] {
+            ByteBuffer.allocateDirect(8), ByteBuffer.allocate(0),
+            ByteBuffer.allocate(16) };
+        assertEquals(24, channel.write(buffers));
+        for (final ByteBuffer buffer: buffers)
+            assertFalse(buffer.hasRemaining());
+    }
+
+    /**
+     * Tests that transfer errors are reported as I/O exceptions.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testError() throws Exception
+    {
+        final UsbPipe pipe = createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 64);
+        final UsbStallException exception = new UsbStallException();
+        doThrow(exception).when(pipe).syncSubmit(any(UsbIrp.class));
+        try
+        {
+            new PipeChannel(pipe).read(ByteBuffer.allocate(8));
+            fail("IOException expected");
+        }
+        catch (final IOException e)
+        {
+            assertEquals(exception, e.getCause());
+        }
+    }
+
+    /**
+     * Tests reading from an OUT pipe.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(expected = NonReadableChannelException.class)
+    public void testNonReadable() throws Exception
+    {
+        new PipeChannel(createPipe(UsbConst.ENDPOINT_DIRECTION_OUT, 64))
+            .read(ByteBuffer.allocate(8));
+    }
+
+    /**
+     * Tests writing to an IN pipe.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(expected = NonWritableChannelException.class)
+    public void testNonWritable() throws Exception
+    {
+        new PipeChannel(createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 64))
+            .write(ByteBuffer.allocate(8));
+    }
+
+    /**
+     * Tests reading from a closed channel.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(expected = ClosedChannelException.class)
+    public void testClosed() throws Exception
+    {
+        final PipeChannel channel = new PipeChannel(
+            createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 64));
+        assertTrue(channel.isOpen());
+        channel.close();
+        assertFalse(channel.isOpen());
+        channel.read(ByteBuffer.allocate(8));
+    }
+
+    /**
+     * Creates the buffers for the gathering write tests.
+     *
+     * @return The buffers.
+     */
+    private static ByteBuffer[] createSources()
+    {
+        return new ByteBuffer[] { ByteBuffer.allocate(8),
+            ByteBuffer.allocateDirect(4), ByteBuffer.allocate(16) };
+    }
+
+    /**
+     * Tests that a gathering write stops at the first failed transfer and
+     * reports the bytes written before it.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testPartialGatheringWrite() throws Exception
+    {
+        final UsbPipe pipe = createPipe(UsbConst.ENDPOINT_DIRECTION_OUT, 64);
+        doAnswer(new Failure(1, new UsbStallException())).when(pipe)
+            .syncSubmit(any(UsbIrp.class));
+        final ByteBuffer[] buffers = createSources();
+        assertEquals(8, new PipeChannel(pipe).write(buffers));
+        assertFalse(buffers[0].hasRemaining());
+        assertEquals(0, buffers[1].position());
+        assertEquals(0, buffers[2].position());
+
+        // The third buffer is never sent
+        verify(pipe, times(2)).syncSubmit(any(UsbIrp.class));
+    }
+
+    /**
+     * Tests that a gathering write stops at a short write.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testShortGatheringWrite() throws Exception
+    {
+        final UsbPipe pipe = createPipe(UsbConst.ENDPOINT_DIRECTION_OUT, 6);
+        final ByteBuffer[] buffers = createSources();
+        assertEquals(6, new PipeChannel(pipe).write(buffers));
+        assertEquals(6, buffers[0].position());
+        assertEquals(0, buffers[1].position());
+        assertEquals(0, buffers[2].position());
+        verify(pipe, times(1)).syncSubmit(any(UsbIrp.class));
+    }
+
+    /**
+     * Tests that a gathering write fails when nothing was written.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testFailedGatheringWrite() throws Exception
+    {
+        final UsbPipe pipe = createPipe(UsbConst.ENDPOINT_DIRECTION_OUT, 64);
+        final UsbStallException exception = new UsbStallException();
+        doAnswer(new Failure(0, exception)).when(pipe)
+            .syncSubmit(any(UsbIrp.class));
+        final ByteBuffer[] buffers = createSources();
+        try
+        {
+            new PipeChannel(pipe).write(buffers);
+            fail("IOException expected");
+        }
+        catch (final IOException e)
+        {
+            assertEquals(exception, e.getCause());
+        }
+        for (final ByteBuffer buffer: buffers)
+            assertEquals(0, buffer.position());
+        verify(pipe, times(1)).syncSubmit(any(UsbIrp.class));
+    }
+
+    /**
+     * Tests reading into a read-only buffer.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testReadReadOnly() throws Exception
+    {
+        final UsbPipe pipe = createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 64);
+        try
+        {
+            new PipeChannel(pipe).read(
+                ByteBuffer.allocate(8).asReadOnlyBuffer());
+            fail("ReadOnlyBufferException expected");
+        }
+        catch (final ReadOnlyBufferException e)
+        {
+            verify(pipe, never()).syncSubmit(any(UsbIrp.class));
+        }
+    }
+
+    /**
+     * Tests that a scattering read checks all buffers before reading.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testScatteringReadReadOnly() throws Exception
+    {
+        final UsbPipe pipe = createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 64);
+        final ByteBuffer[] buffers = new ByteBuffer[] {
+            ByteBuffer.allocate(8), ByteBuffer.allocate(8).asReadOnlyBuffer() };
+        try
+        {
+            new PipeChannel(pipe).read(buffers);
+            fail("ReadOnlyBufferException expected");
+        }
+        catch (final ReadOnlyBufferException e)
+        {
+            assertEquals(0, buffers[0].position());
+            verify(pipe, never()).syncSubmit(any(UsbIrp.class));
+        }
+    }
+
+    /**
+     * Tests a scattering read with an invalid buffer range.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testScatteringReadOutOfBounds() throws Exception
+    {
+        new PipeChannel(createPipe(UsbConst.ENDPOINT_DIRECTION_IN, 64))
+            .read(new ByteBuffer[] { ByteBuffer.allocate(8) }, 1, 1);
+    }
+
+    /**
+     * Tests a gathering write with an invalid buffer range.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGatheringWriteOutOfBounds() throws Exception
+    {
+        new PipeChannel(createPipe(UsbConst.ENDPOINT_DIRECTION_OUT, 64))
+            .write(new ByteBuffer[] { ByteBuffer.allocate(8) }, -1, 1);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.usb.UsbException;
+import javax.usb.UsbPipe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * Tests the {@link PipePublisher} class.
+ *
+ * @author usb4java Team
+ */
+public class PipePublisherTest
+{
+    /** The simulated backend. */
+    private FakeTransferBackend backend;
+
+    /** The received signals. */
+    private List<String> signals;
+
+    /** The subscription passed to the subscriber. */
+    private PipeSubscription subscription;
+
+    /** The stream. */
+    private PipeStream stream;
+
+    /** The test subject. */
+    private PipePublisher publisher;
+
+    /**
+     * Set up the test.
+     *
+     * @throws UsbException
+     *             When publisher could not be started.
+     */
+    @Before
+    public void setUp() throws UsbException
+    {
+        this.backend = new FakeTransferBackend();
+        this.signals = new ArrayList<String>();
+        this.publisher = new PipePublisher(new PipeSubscriber()
+        {
+            @Override
+            public void onSubscribe(final PipeSubscription subscription)
+            {
+                PipePublisherTest.this.subscription = subscription;
+                PipePublisherTest.this.signals.add("subscribe");
+            }
+
+            @Override
+            public void onNext(final ByteBuffer data)
+            {
+                PipePublisherTest.this.signals.add("next " + data.remaining());
+            }
+
+            @Override
+            public void onError(final UsbException e)
+            {
+                PipePublisherTest.this.signals.add("error");
+            }
+
+            @Override
+            public void onComplete()
+            {
+                PipePublisherTest.this.signals.add("complete");
+            }
+        });
+        this.stream = new PipeStream(mock(UsbPipe.class), this.backend,
+            new BufferPool(4096), new DeviceHandle(), (byte) 0x81,
+            LibUsb.TRANSFER_TYPE_BULK, 2, 64, this.publisher);
+        this.publisher.start(this.stream);
+    }
+
+    /**
+     * Tests the constructor without subscriber.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithoutSubscriber()
+    {
+        new PipePublisher(null);
+    }
+
+    /**
+     * Tests that data is only received on demand.
+     */
+    @Test
+    public void testDemand()
+    {
+        assertNotNull(this.subscription);
+        assertEquals(0, this.backend.getPending().size());
+        this.subscription.request(1);
+        assertEquals(1, this.backend.getPending().size());
+        this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, 12);
+        assertEquals(0, this.backend.getPending().size());
+        assertEquals(2, this.signals.size());
+        assertEquals("next 12", this.signals.get(1));
+    }
+
+    /**
+     * Tests cancelling the subscription.
+     */
+    @Test
+    public void testCancel()
+    {
+        this.subscription.request(10);
+        this.subscription.cancel();
+        assertTrue(this.publisher.isTerminated());
+        assertFalse(this.stream.isRunning());
+        assertEquals(0, this.backend.getPending().size());
+        this.publisher.complete();
+        assertEquals(1, this.signals.size());
+    }
+
+    /**
+     * Tests completing the subscription.
+     */
+    @Test
+    public void testComplete()
+    {
+        this.subscription.request(1);
+        this.publisher.complete();
+        this.publisher.complete();
+        assertFalse(this.stream.isRunning());
+        assertEquals("complete", this.signals.get(1));
+        assertEquals(2, this.signals.size());
+    }
+
+    /**
+     * Tests that a failed transfer terminates the subscription.
+     */
+    @Test
+    public void testError()
+    {
+        this.subscription.request(1);
+        this.backend.complete(0, LibUsb.TRANSFER_ERROR, 0);
+        this.publisher.complete();
+        assertEquals("error", this.signals.get(1));
+        assertEquals(2, this.signals.size());
+    }
+}
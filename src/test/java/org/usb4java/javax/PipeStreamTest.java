@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.usb.UsbException;
+import javax.usb.UsbPipe;
+import javax.usb.UsbStallException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * Tests the {@link PipeStream} class.
+ *
+ * @author usb4java Team
+ */
+public class PipeStreamTest
+{
+    /** The simulated backend. */
+    private FakeTransferBackend backend;
+
+    /** The pipe. */
+    private UsbPipe pipe;
+
+    /** The sizes of the received data. */
+    private List<Integer> received;
+
+    /** The reported errors. */
+    private List<UsbException> errors;
+
+    /** The test subject. */
+    private PipeStream stream;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new FakeTransferBackend();
+        this.pipe = mock(UsbPipe.class);
+        this.received = new ArrayList<Integer>();
+        this.errors = new ArrayList<UsbException>();
+        this.stream = createStream(new PipeStreamListener()
+        {
+            @Override
+            public void dataReceived(final UsbPipe pipe, final ByteBuffer data)
+            {
+                PipeStreamTest.this.received.add(data.remaining());
+            }
+
+            @Override
+            public void errorOccurred(final UsbPipe pipe, final UsbException e)
+            {
+                PipeStreamTest.this.errors.add(e);
+            }
+        });
+    }
+
+    /**
+     * Creates a stream with three transfers of 64 bytes.
+     *
+     * @param listener
+     *            The stream listener.
+     * @return The stream.
+     */
+    private PipeStream createStream(final PipeStreamListener listener)
+    {
+        return new PipeStream(this.pipe, this.backend, new BufferPool(4096),
+            new DeviceHandle(), (byte) 0x81, LibUsb.TRANSFER_TYPE_BULK, 3, 64,
+            listener);
+    }
+
+    /**
+     * Tests that starting submits all transfers.
+     *
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    @Test
+    public void testStart() throws UsbException
+    {
+        this.stream.start();
+        assertTrue(this.stream.isRunning());
+        assertEquals(3, this.backend.getPending().size());
+        assertEquals(3, this.stream.getPending());
+        for (final AsyncTransfer transfer: this.backend.getPending())
+            assertEquals(64, transfer.getBuffer().limit());
+    }
+
+    /**
+     * Tests that completed transfers are delivered and submitted again.
+     *
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    @Test
+    public void testResubmit() throws UsbException
+    {
+        this.stream.start();
+        final AsyncTransfer first =
+            this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, 10);
+        this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, 64);
+        assertEquals(2, this.received.size());
+        assertEquals(10, this.received.get(0).intValue());
+        assertEquals(64, this.received.get(1).intValue());
+        final List<AsyncTransfer> pending = this.backend.getPending();
+        assertEquals(3, pending.size());
+        final AsyncTransfer resubmitted = pending.get(1);
+        assertNotSame(first, resubmitted);
+        assertSame(first.getBuffer(), resubmitted.getBuffer());
+        assertEquals(64, resubmitted.getBuffer().limit());
+    }
+
+    /**
+     * Tests stopping the stream.
+     *
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    @Test
+    public void testStop() throws UsbException
+    {
+        this.stream.start();
+        this.stream.stop();
+        assertFalse(this.stream.isRunning());
+        assertEquals(0, this.stream.getPending());
+        assertEquals(0, this.backend.getPending().size());
+        assertTrue(this.received.isEmpty());
+        assertTrue(this.errors.isEmpty());
+    }
+
+    /**
+     * Tests stopping the stream from the listener.
+     *
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    @Test
+    public void testStopFromListener() throws UsbException
+    {
+        final PipeStream[] stream = new PipeStream[1];
+        stream[0] = createStream(new PipeStreamListener()
+        {
+            @Override
+            public void dataReceived(final UsbPipe pipe, final ByteBuffer data)
+            {
+                stream[0].stop();
+            }
+
+            @Override
+            public void errorOccurred(final UsbPipe pipe, final UsbException e)
+            {
+                fail("Unexpected error");
+            }
+        });
+        stream[0].start();
+        this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, 64);
+        assertFalse(stream[0].isRunning());
+        assertEquals(0, stream[0].getPending());
+    }
+
+    /**
+     * Tests that a failed transfer stops the stream.
+     *
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    @Test
+    public void testError() throws UsbException
+    {
+        this.stream.start();
+        this.backend.complete(1, LibUsb.TRANSFER_STALL, 0);
+        assertFalse(this.stream.isRunning());
+        assertEquals(0, this.stream.getPending());
+        assertEquals(1, this.errors.size());
+        assertTrue(this.errors.get(0) instanceof UsbStallException);
+    }
+
+    /**
+     * Tests a failing submit on start.
+     */
+    @Test
+    public void testStartError()
+    {
+        this.backend.setSubmitResult(LibUsb.ERROR_NO_DEVICE);
+        try
+        {
+            this.stream.start();
+            fail("UsbException expected");
+        }
+        catch (final UsbException e)
+        {
+            assertFalse(this.stream.isRunning());
+            assertEquals(0, this.stream.getPending());
+        }
+    }
+
+    /**
+     * Tests that the demand limits the submitted transfers.
+     *
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    @Test
+    public void testDemand() throws UsbException
+    {
+        this.stream.start(0);
+        assertTrue(this.stream.isRunning());
+        assertEquals(0, this.backend.getPending().size());
+
+        this.stream.request(2);
+        assertEquals(2, this.backend.getPending().size());
+        assertEquals(0, this.stream.getDemand());
+
+        this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, 8);
+        assertEquals(1, this.received.size());
+        assertEquals(1, this.backend.getPending().size());
+
+        this.stream.request(5);
+        assertEquals(3, this.backend.getPending().size());
+        assertEquals(3, this.stream.getDemand());
+
+        this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, 8);
+        assertEquals(3, this.backend.getPending().size());
+        assertEquals(2, this.stream.getDemand());
+    }
+
+    /**
+     * Tests that demand requested from the listener is served.
+     *
+     * @throws UsbException
+     *             When stream could not be started.
+     */
+    @Test
+    public void testRequestFromListener() throws UsbException
+    {
+        final PipeStream[] stream = new PipeStream[1];
+        stream[0] = createStream(new PipeStreamListener()
+        {
+            @Override
+            public void dataReceived(final UsbPipe pipe, final ByteBuffer data)
+            {
+                stream[0].request(1);
+            }
+
+            @Override
+            public void errorOccurred(final UsbPipe pipe, final UsbException e)
+            {
+                fail("Unexpected error");
+            }
+        });
+        stream[0].start(1);
+        assertEquals(1, this.backend.getPending().size());
+        this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, 64);
+        assertEquals(1, this.backend.getPending().size());
+        assertEquals(0, stream[0].getDemand());
+    }
+
+    /**
+     * Tests requesting an invalid demand.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRequest()
+    {
+        this.stream.request(0);
+    }
+}
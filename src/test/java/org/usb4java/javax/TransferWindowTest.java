@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import javax.usb.UsbException;
+import javax.usb.util.DefaultUsbIrp;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+
+/**
+ * Tests the {@link TransferWindow} class.
+ *
+ * @author usb4java Team
+ */
+public class TransferWindowTest
+{
+    /** The simulated backend. */
+    private FakeTransferBackend backend;
+
+    /** The transfers reported by the window. */
+    private List<AsyncTransfer> reported;
+
+    /** The test subject. */
+    private TransferWindow window;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new FakeTransferBackend();
+        this.reported = new ArrayList<AsyncTransfer>();
+        this.window = new TransferWindow(this.backend, 3,
+            new TransferListener()
+            {
+                @Override
+                public void transferCompleted(final AsyncTransfer transfer)
+                {
+                    TransferWindowTest.this.reported.add(transfer);
+                }
+            });
+    }
+
+    /**
+     * Creates a test transfer.
+     *
+     * @return The test transfer.
+     */
+    private static AsyncTransfer createTransfer()
+    {
+        return new AsyncTransfer(new DefaultUsbIrp(), new DeviceHandle(),
+            (byte) 0x81, LibUsb.TRANSFER_TYPE_BULK,
+            ByteBuffer.allocateDirect(8), 0);
+    }
+
+    /**
+     * Tests that transfers are reported in submission order.
+     *
+     * @throws UsbException
+     *             When submit fails.
+     */
+    @Test
+    public void testInOrderCompletion() throws UsbException
+    {
+        final AsyncTransfer a = createTransfer();
+        final AsyncTransfer b = createTransfer();
+        final AsyncTransfer c = createTransfer();
+        this.window.submit(a);
+        this.window.submit(b);
+        this.window.submit(c);
+        assertTrue(this.window.isFull());
+
+        // Complete the last two transfers first. Nothing must be reported.
+        this.backend.complete(2, LibUsb.TRANSFER_COMPLETED, 8);
+        this.backend.complete(1, LibUsb.TRANSFER_COMPLETED, 8);
+        assertEquals(0, this.reported.size());
+        assertEquals(3, this.window.size());
+
+        // Complete the first one. Now all are reported in order.
+        this.backend.complete(0, LibUsb.TRANSFER_COMPLETED, 8);
+        assertEquals(3, this.reported.size());
+        assertSame(a, this.reported.get(0));
+        assertSame(b, this.reported.get(1));
+        assertSame(c, this.reported.get(2));
+        assertEquals(0, this.window.size());
+        assertFalse(this.window.isFull());
+    }
+
+    /**
+     * Tests cancelling all transfers.
+     *
+     * @throws UsbException
+     *             When submit fails.
+     */
+    @Test
+    public void testCancelAll() throws UsbException
+    {
+        this.window.submit(createTransfer());
+        this.window.submit(createTransfer());
+        this.window.cancelAll();
+        assertEquals(2, this.reported.size());
+        for (final AsyncTransfer transfer: this.reported)
+            assertEquals(LibUsb.TRANSFER_CANCELLED, transfer.getStatus());
+        assertEquals(0, this.window.size());
+    }
+
+    /**
+     * Tests a failed submission.
+     */
+    @Test
+    public void testSubmitError()
+    {
+        this.backend.setSubmitResult(LibUsb.ERROR_NO_DEVICE);
+        try
+        {
+            this.window.submit(createTransfer());
+            fail("Exception expected");
+        }
+        catch (final UsbException e)
+        {
+            assertEquals(0, this.window.size());
+        }
+    }
+
+    /**
+     * Tests that submitting to a full window waits until a slot is free.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 5000)
+    public void testSubmitWaitsWhenFull() throws Exception
+    {
+        this.window.submit(createTransfer());
+        this.window.submit(createTransfer());
+        this.window.submit(createTransfer());
+        final Thread submitter = Thread.currentThread();
+        final Thread completer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while (submitter.getState() != Thread.State.WAITING)
+                    Thread.yield();
+                TransferWindowTest.this.backend.complete(0,
+                    LibUsb.TRANSFER_COMPLETED, 8);
+            }
+        });
+        completer.start();
+        this.window.submit(createTransfer());
+        completer.join();
+        assertEquals(1, this.reported.size());
+        assertEquals(3, this.window.size());
+        assertEquals(3, this.backend.getPending().size());
+    }
+
+    /**
+     * Tests waiting for an empty window.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 5000)
+    public void testAwaitEmpty() throws Exception
+    {
+        this.window.submit(createTransfer());
+        final Thread waiter = Thread.currentThread();
+        final Thread completer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while (waiter.getState() != Thread.State.WAITING)
+                    Thread.yield();
+                TransferWindowTest.this.backend.complete(0,
+                    LibUsb.TRANSFER_COMPLETED, 8);
+            }
+        });
+        completer.start();
+        this.window.awaitEmpty();
+        completer.join();
+        assertEquals(0, this.window.size());
+        assertEquals(1, this.reported.size());
+    }
+
+    /**
+     * Tests that a transfer stays in flight until the listener has returned
+     * while its slot is already free.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(timeout = 5000)
+    public void testTransferInFlightUntilReported() throws Exception
+    {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TransferWindow window = new TransferWindow(this.backend, 1,
+            new TransferListener()
+            {
+                @Override
+                public void transferCompleted(final AsyncTransfer transfer)
+                {
+                    entered.countDown();
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        window.submit(createTransfer());
+        final Thread completer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                TransferWindowTest.this.backend.complete(0,
+                    LibUsb.TRANSFER_COMPLETED, 8);
+            }
+        });
+        completer.start();
+        entered.await();
+        assertEquals(1, window.size());
+        assertFalse(window.isIdle());
+        assertFalse(window.isFull());
+        release.countDown();
+        window.awaitEmpty();
+        assertEquals(0, window.size());
+        assertTrue(window.isIdle());
+        completer.join();
+    }
+}
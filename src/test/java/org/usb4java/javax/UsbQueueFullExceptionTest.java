@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2026 usb4java Team <http://usb4java.org/>
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.javax;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link UsbQueueFullException} class.
+ * 
+ * @author usb4java Team
+ */
+public class UsbQueueFullExceptionTest
+{
+    /**
+     * Tests the constructor.
+     */
+    @Test
+    public void testConstructor()
+    {
+        final UsbQueueFullException exception = new UsbQueueFullException(16);
+        assertEquals("IRP queue is full (capacity 16)", exception.getMessage());
+    }
+}